@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.benchmarks;
+
+import com.zatarox.chess.skychess.engine.Board;
+import com.zatarox.chess.skychess.engine.DefaultEvaluator;
+import com.zatarox.chess.skychess.engine.Evaluator;
+import com.zatarox.chess.skychess.engine.TaperedEvaluator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * SkyChess board: make and unmake of every legal move, and static
+ * evaluation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class BoardBenchmark {
+
+    @Param({Positions.INITIAL, Positions.KIWIPETE})
+    private String fen;
+
+    private Board board;
+    private short[] moves;
+    private Evaluator simple;
+    private Evaluator tapered;
+
+    @Setup
+    public void setUp() {
+        board = new Board();
+        board.reset(fen);
+        moves = board.getAllMoves();
+        simple = new DefaultEvaluator();
+        tapered = new TaperedEvaluator();
+    }
+
+    @Benchmark
+    public long play() {
+        for (short move : moves) {
+            if (board.play(move)) {
+                board.unplay();
+            }
+        }
+        return board.hashCode64();
+    }
+
+    @Benchmark
+    public int evaluateDefault() {
+        return simple.evaluate(board);
+    }
+
+    @Benchmark
+    public int evaluateTapered() {
+        return tapered.evaluate(board);
+    }
+
+}
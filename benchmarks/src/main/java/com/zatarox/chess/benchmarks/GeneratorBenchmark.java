@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.benchmarks;
+
+import com.zatarox.chess.openchess.controllers.generators.GeneratorFacade;
+import com.zatarox.chess.openchess.models.materials.ChessBoard;
+import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveBuffer;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Full move generation of the side to move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class GeneratorBenchmark {
+
+    @Param({Positions.INITIAL, Positions.KIWIPETE})
+    private String fen;
+
+    private ChessBoard board;
+    private final MoveBuffer buffer = new MoveBuffer();
+
+    @Setup
+    public void setUp() {
+        board = new ForsythEdwardsNotation(fen).create();
+    }
+
+    @Benchmark
+    public Queue<Move> alls() {
+        return GeneratorFacade.getInstance().alls(board);
+    }
+
+    @Benchmark
+    public int allsBuffer() {
+        buffer.clear();
+        GeneratorFacade.getInstance().alls(board, buffer);
+        return buffer.size();
+    }
+
+    /**
+     * Generation followed by the selection of every move, as a search
+     * without cutoff would do.
+     */
+    @Benchmark
+    public int allsBufferSelected() {
+        buffer.clear();
+        GeneratorFacade.getInstance().alls(board, buffer);
+        int result = 0;
+        while (buffer.hasNext()) {
+            result ^= buffer.next();
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.benchmarks;
+
+import com.zatarox.chess.openchess.models.materials.BitBoard;
+import com.zatarox.chess.openchess.models.materials.BoardSide;
+import com.zatarox.chess.openchess.models.materials.ChessBoard;
+import com.zatarox.chess.openchess.models.materials.Piece;
+import com.zatarox.chess.openchess.models.materials.Square;
+import com.zatarox.chess.openchess.models.materials.Stone;
+import com.zatarox.chess.openchess.models.materials.ZobristHashStrategy;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Board queries: stone lookup on every square, iteration over the occupied
+ * squares and zobrist key updates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MaterialsBenchmark {
+
+    private static final Square[] SQUARES = Square.values();
+
+    private ChessBoard board;
+    private BitBoard occupied;
+    private ZobristHashStrategy hashing;
+    private Stone stone;
+
+    @Setup
+    public void setUp() {
+        board = new ForsythEdwardsNotation(Positions.KIWIPETE).create();
+        occupied = board.getSide(BoardSide.WHITE).getSnapshot();
+        occupied.merge(board.getSide(BoardSide.BLACK).getSnapshot());
+        hashing = new ZobristHashStrategy();
+        stone = new Stone(Piece.KNIGHT, BoardSide.WHITE);
+    }
+
+    @Benchmark
+    public void getStone(Blackhole hole) {
+        for (Square square : SQUARES) {
+            hole.consume(board.getStone(square));
+        }
+    }
+
+    @Benchmark
+    public void iterator(Blackhole hole) {
+        for (Square square : occupied) {
+            hole.consume(square);
+        }
+    }
+
+    @Benchmark
+    public void pop(Blackhole hole) {
+        for (long bits = occupied.unwrap(); bits != 0; bits = BitBoard.pop(bits)) {
+            hole.consume(BitBoard.first(bits));
+        }
+    }
+
+    @Benchmark
+    public long zobrist() {
+        hashing.add(stone, Square.F3);
+        hashing.remove(stone, Square.F3);
+        return hashing.hashCode64();
+    }
+
+}
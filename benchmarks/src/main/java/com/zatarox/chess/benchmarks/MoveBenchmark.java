@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.benchmarks;
+
+import com.zatarox.chess.openchess.models.materials.ChessBoard;
+import com.zatarox.chess.openchess.models.materials.Piece;
+import com.zatarox.chess.openchess.models.materials.Square;
+import com.zatarox.chess.openchess.models.materials.Stone;
+import com.zatarox.chess.openchess.models.materials.BoardSide;
+import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveUndo;
+import com.zatarox.chess.openchess.models.moves.MovesFactorySingleton;
+import com.zatarox.chess.openchess.models.moves.PackedMove;
+import com.zatarox.chess.openchess.models.moves.exceptions.IllegalMoveException;
+import com.zatarox.chess.openchess.models.moves.exceptions.SelfMateMoveException;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Make and unmake of a quiet move and of a capture, legality check included,
+ * as move objects and as packed moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MoveBenchmark {
+
+    private ChessBoard board;
+    private Move normal;
+    private Move capture;
+    private final MoveUndo undo = new MoveUndo();
+
+    @Setup
+    public void setUp() {
+        board = new ForsythEdwardsNotation(Positions.KIWIPETE).create();
+        normal = MovesFactorySingleton.getInstance().createNormal(Square.E5, Square.D3);
+        capture = MovesFactorySingleton.getInstance().createCapture(Square.E5, Square.F7, new Stone(Piece.PAWN, BoardSide.BLACK));
+    }
+
+    @Benchmark
+    public long playNormal() throws IllegalMoveException, SelfMateMoveException {
+        normal.play(board);
+        normal.unplay(board);
+        return board.getHashing().hashCode64();
+    }
+
+    @Benchmark
+    public long playCapture() throws IllegalMoveException, SelfMateMoveException {
+        capture.play(board);
+        capture.unplay(board);
+        return board.getHashing().hashCode64();
+    }
+
+    @Benchmark
+    public long playPackedNormal() throws IllegalMoveException, SelfMateMoveException {
+        final int move = PackedMove.createNormal(Square.E5, Square.D3);
+        PackedMove.play(board, move, undo);
+        PackedMove.unplay(board, move, undo);
+        return board.getHashing().hashCode64();
+    }
+
+    @Benchmark
+    public long playPackedCapture() throws IllegalMoveException, SelfMateMoveException {
+        final int move = PackedMove.createCapture(Square.E5, Square.F7, Piece.PAWN);
+        PackedMove.play(board, move, undo);
+        PackedMove.unplay(board, move, undo);
+        return board.getHashing().hashCode64();
+    }
+
+}
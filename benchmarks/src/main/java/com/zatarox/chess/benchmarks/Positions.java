@@ -13,24 +13,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.zatarox.chess.skychess.tables;
+package com.zatarox.chess.benchmarks;
 
-import java.util.Map;
-
-abstract class AbstractTable<K, G> {
-
-    private final Map<K, G> table;
-
-    public AbstractTable(Map<K, G> table) {
-        this.table = table;
-    }
+/**
+ * Positions shared by the benchmarks, in Forsyth-Edwards notation.
+ */
+public final class Positions {
 
-    final protected Map<K, G> getTable() {
-        return table;
-    }
+    public static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    public static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
 
-    final public void clear() {
-        table.clear();
+    private Positions() {
     }
 
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.benchmarks;
+
+import com.zatarox.chess.skychess.engine.Board;
+import com.zatarox.chess.skychess.tables.TranspositionTable;
+import chesspresso.move.Move;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Transposition table probes, for a stored and a missing position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class TranspositionTableBenchmark {
+
+    private final TranspositionTable table = TranspositionTable.getInstance();
+    private Board stored;
+    private Board missing;
+
+    @Setup
+    public void setUp() {
+        table.clear();
+        stored = new Board();
+        stored.reset(Positions.INITIAL);
+        missing = new Board();
+        missing.reset(Positions.KIWIPETE);
+        table.put(stored, 1, 0, TranspositionTable.Bound.EXACT, Move.NO_MOVE);
+    }
+
+    @Benchmark
+    public long probeHit() {
+        return table.probe(stored);
+    }
+
+    @Benchmark
+    public long probeMiss() {
+        return table.probe(missing);
+    }
+
+}
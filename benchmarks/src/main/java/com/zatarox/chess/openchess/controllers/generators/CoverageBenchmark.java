@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.controllers.generators;
+
+import com.zatarox.chess.benchmarks.Positions;
+import com.zatarox.chess.openchess.models.materials.BoardSide;
+import com.zatarox.chess.openchess.models.materials.ChessBoard;
+import com.zatarox.chess.openchess.models.materials.Piece;
+import com.zatarox.chess.openchess.models.materials.Square;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Magic bitboard lookups of the sliders on every square. Lives in the
+ * generators package since coverage is package private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class CoverageBenchmark {
+
+    private static final Square[] SQUARES = Square.values();
+
+    private AbstractGenerator rook;
+    private AbstractGenerator bishop;
+    private long occupied;
+
+    @Setup
+    public void setUp() {
+        final ChessBoard board = new ForsythEdwardsNotation(Positions.KIWIPETE).create();
+        occupied = board.getOccupancy();
+        rook = (AbstractGenerator) GeneratorsFactorySingleton.getInstance().from(Piece.ROOK);
+        bishop = (AbstractGenerator) GeneratorsFactorySingleton.getInstance().from(Piece.BISHOP);
+    }
+
+    @Benchmark
+    public void rook(Blackhole hole) {
+        for (Square square : SQUARES) {
+            hole.consume(rook.coverage(square, occupied, BoardSide.WHITE));
+        }
+    }
+
+    @Benchmark
+    public void bishop(Blackhole hole) {
+        for (Square square : SQUARES) {
+            hole.consume(bishop.coverage(square, occupied, BoardSide.WHITE));
+        }
+    }
+
+}
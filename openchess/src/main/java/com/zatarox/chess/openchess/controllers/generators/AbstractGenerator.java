@@ -17,8 +17,10 @@ package com.zatarox.chess.openchess.controllers.generators;
 
 import com.zatarox.chess.openchess.models.materials.*;
 import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveBuffer;
 import com.zatarox.chess.openchess.models.moves.MoveVisitable;
 import com.zatarox.chess.openchess.models.moves.MovesFactorySingleton;
+import com.zatarox.chess.openchess.models.moves.PackedMove;
 import java.util.LinkedList;
 import java.util.PriorityQueue;
 import java.util.Queue;
@@ -58,12 +60,11 @@ public abstract class AbstractGenerator implements Generator {
         if (!board.isOccuped(square)) {
             throw new IllegalArgumentException("No attacker piece");
         }
-        final BitBoard all = board.getSide(BoardSide.WHITE).getSnapshot();
-        all.merge(board.getSide(BoardSide.BLACK).getSnapshot());
         final Stone stone = board.getStone(square);
-        final BitBoard attacks = new BitBoard(coverage(square, all, board.getTurn()) & board.getSide(stone.getSide().flip()).getSnapshot().unwrap());
+        final long attacks = coverage(square, board.getOccupancy(), board.getTurn()) & board.getSide(stone.getSide().flip()).getOccupancy();
         final Queue<Move> result = new PriorityQueue<>();
-        for (Square to : attacks) {
+        for (long bits = attacks; bits != 0; bits = BitBoard.pop(bits)) {
+            final Square to = BitBoard.first(bits);
             final Move move = MovesFactorySingleton.getInstance().createCapture(square, to, board.getStone(to));
             getPonder().compute(board, (MoveVisitable) move);
             result.add(move);
@@ -79,14 +80,15 @@ public abstract class AbstractGenerator implements Generator {
         if (!board.isOccuped(square)) {
             throw new IllegalArgumentException("No piece to check");
         }
-        final BitBoard all = board.getSide(BoardSide.WHITE).getSnapshot();
-        all.merge(board.getSide(BoardSide.BLACK).getSnapshot());
+        final long all = board.getOccupancy();
         final Stone stone = board.getStone(square);
-        final BitBoard attacks = new BitBoard();
-        for (Square index : board.getSide(stone.getSide().flip()).get(type)) {
-            attacks.merge(new BitBoard(coverage(index, all, stone.getSide()) & board.getSide(stone.getSide()).getSnapshot().unwrap()));
+        final long own = board.getSide(stone.getSide()).getOccupancy();
+        long attacks = 0;
+        for (long bits = board.getSide(stone.getSide().flip()).get(type).unwrap(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square index = BitBoard.first(bits);
+            attacks |= coverage(index, all, stone.getSide()) & own;
         }
-        return (attacks.unwrap() & square.toBitMask()) != 0;
+        return (attacks & square.toBitMask()) != 0;
     }
 
     /**
@@ -94,11 +96,11 @@ public abstract class AbstractGenerator implements Generator {
      */
     @Override
     public Queue<Move> fills(ChessBoard board, Square square) {
-        final BitBoard all = board.getSide(BoardSide.WHITE).getSnapshot();
-        all.merge(board.getSide(BoardSide.BLACK).getSnapshot());
-        final BitBoard attacks = new BitBoard(coverage(square, all, board.getTurn()) & ~all.unwrap());
+        final long all = board.getOccupancy();
+        final long fills = coverage(square, all, board.getTurn()) & ~all;
         final Queue<Move> result = new PriorityQueue<>();
-        for (Square to : attacks) {
+        for (long bits = fills; bits != 0; bits = BitBoard.pop(bits)) {
+            final Square to = BitBoard.first(bits);
             final Move move = MovesFactorySingleton.getInstance().createNormal(square, to);
             getPonder().compute(board, (MoveVisitable) move);
             result.add(move);
@@ -109,7 +111,8 @@ public abstract class AbstractGenerator implements Generator {
     @Override
     public final Queue<Move> attacks(ChessBoard board) {
         final Queue<Move> result = new LinkedList<>();
-        for (Square index : board.getSide(board.getTurn()).get(type)) {
+        for (long bits = board.getSide(board.getTurn()).get(type).unwrap(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square index = BitBoard.first(bits);
             result.addAll(attacks(board, index));
         }
         return result;
@@ -118,7 +121,8 @@ public abstract class AbstractGenerator implements Generator {
     @Override
     public final Queue<Move> fills(ChessBoard board) {
         final Queue<Move> result = new PriorityQueue<>();
-        for (Square index : board.getSide(board.getTurn()).get(type)) {
+        for (long bits = board.getSide(board.getTurn()).get(type).unwrap(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square index = BitBoard.first(bits);
             result.addAll(fills(board, index));
         }
         return result;
@@ -138,6 +142,64 @@ public abstract class AbstractGenerator implements Generator {
         return result;
     }
 
+    @Override
+    public final void attacks(ChessBoard board, MoveBuffer buffer) {
+        final long all = board.getOccupancy();
+        for (long bits = board.getSide(board.getTurn()).get(type).unwrap(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square index = BitBoard.first(bits);
+            attacks(board, index, all, buffer);
+        }
+    }
+
+    @Override
+    public final void fills(ChessBoard board, MoveBuffer buffer) {
+        final long all = board.getOccupancy();
+        for (long bits = board.getSide(board.getTurn()).get(type).unwrap(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square index = BitBoard.first(bits);
+            fills(board, index, all, buffer);
+        }
+    }
+
+    @Override
+    public final void alls(ChessBoard board, MoveBuffer buffer) {
+        attacks(board, buffer);
+        fills(board, buffer);
+    }
+
+    /**
+     * Can't be final, for pawns generation...
+     *
+     * @param all Occupancy of both sides
+     */
+    protected void attacks(ChessBoard board, Square square, long all, MoveBuffer buffer) {
+        final Stone stone = board.getStone(square);
+        final long attacks = coverage(square, all, board.getTurn()) & board.getSide(stone.getSide().flip()).getOccupancy();
+        for (long bits = attacks; bits != 0; bits = BitBoard.pop(bits)) {
+            final Square to = BitBoard.first(bits);
+            add(board, buffer, PackedMove.createCapture(square, to, board.getStone(to).getPiece()));
+        }
+    }
+
+    /**
+     * Can't be final, for pawns generation...
+     *
+     * @param all Occupancy of both sides
+     */
+    protected void fills(ChessBoard board, Square square, long all, MoveBuffer buffer) {
+        final long fills = coverage(square, all, board.getTurn()) & ~all;
+        for (long bits = fills; bits != 0; bits = BitBoard.pop(bits)) {
+            final Square to = BitBoard.first(bits);
+            add(board, buffer, PackedMove.createNormal(square, to));
+        }
+    }
+
+    /**
+     * Appends a packed move scored by the pondering strategy.
+     */
+    protected final void add(ChessBoard board, MoveBuffer buffer, int move) {
+        buffer.add(move, getPonder().score(board, move));
+    }
+
     /**
      * Magic! coverage, very fast method
      *
@@ -146,7 +208,7 @@ public abstract class AbstractGenerator implements Generator {
      * @param color
      * @return
      */
-    abstract long coverage(Square index, BitBoard all, BoardSide color);
+    abstract long coverage(Square index, long all, BoardSide color);
 
     /**
      * Call it from final constructor for magic bitboard initialization.
@@ -77,8 +77,8 @@ final class BishopGenerator extends AbstractSliderGenerator {
     }
 
     @Override
-    long coverage(Square index, BitBoard all, BoardSide turn) {
-        int i = magicTransform(all.unwrap() & bishopMask[index.ordinal()], bishopMagicNumber[index.ordinal()], bishopShiftBits[index.ordinal()]);
+    long coverage(Square index, long all, BoardSide turn) {
+        int i = magicTransform(all & bishopMask[index.ordinal()], bishopMagicNumber[index.ordinal()], bishopShiftBits[index.ordinal()]);
         return bishopMagic[index.ordinal()][i];
     }
 
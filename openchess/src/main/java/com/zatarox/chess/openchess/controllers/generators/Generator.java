@@ -18,6 +18,7 @@ package com.zatarox.chess.openchess.controllers.generators;
 import com.zatarox.chess.openchess.models.materials.ChessBoard;
 import com.zatarox.chess.openchess.models.materials.Square;
 import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveBuffer;
 import java.util.Queue;
 
 public interface Generator {
@@ -70,4 +71,22 @@ public interface Generator {
      */
     Queue<Move> alls(ChessBoard board, Square square);
 
+    /**
+     * @param board
+     * @param buffer Receives all attacking moves for current player, packed
+     */
+    void attacks(ChessBoard board, MoveBuffer buffer);
+
+    /**
+     * @param board
+     * @param buffer Receives all non-attacking moves for current player, packed
+     */
+    void fills(ChessBoard board, MoveBuffer buffer);
+
+    /**
+     * @param board Current chessboard
+     * @param buffer Receives all moves for current player, packed
+     */
+    void alls(ChessBoard board, MoveBuffer buffer);
+
 }
@@ -17,6 +17,7 @@ package com.zatarox.chess.openchess.controllers.generators;
 
 import com.zatarox.chess.openchess.models.materials.*;
 import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveBuffer;
 import java.util.PriorityQueue;
 import java.util.Queue;
 
@@ -46,7 +47,8 @@ public final class GeneratorFacade implements Generator {
     @Override
     public Queue<Move> attacks(ChessBoard board) {
         final Queue<Move> result = new PriorityQueue<>();
-        for (Square square : board.getSide(board.getTurn())) {
+        for (long bits = board.getSide(board.getTurn()).getOccupancy(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square square = BitBoard.first(bits);
             result.addAll(attacks(board, square));
         }
         return result;
@@ -67,7 +69,8 @@ public final class GeneratorFacade implements Generator {
     @Override
     public Queue<Move> fills(ChessBoard board) {
         final Queue<Move> result = new PriorityQueue<>();
-        for (Square square : board.getSide(board.getTurn())) {
+        for (long bits = board.getSide(board.getTurn()).getOccupancy(); bits != 0; bits = BitBoard.pop(bits)) {
+            final Square square = BitBoard.first(bits);
             result.addAll(fills(board, square));
         }
         return result;
@@ -86,6 +89,26 @@ public final class GeneratorFacade implements Generator {
         return GeneratorsFactorySingleton.getInstance().from(stone.getPiece()).alls(board, square);
     }
 
+    @Override
+    public void attacks(ChessBoard board, MoveBuffer buffer) {
+        for (Piece p : Piece.values()) {
+            GeneratorsFactorySingleton.getInstance().from(p).attacks(board, buffer);
+        }
+    }
+
+    @Override
+    public void fills(ChessBoard board, MoveBuffer buffer) {
+        for (Piece p : Piece.values()) {
+            GeneratorsFactorySingleton.getInstance().from(p).fills(board, buffer);
+        }
+    }
+
+    @Override
+    public void alls(ChessBoard board, MoveBuffer buffer) {
+        attacks(board, buffer);
+        fills(board, buffer);
+    }
+
     public static GeneratorFacade getInstance() {
         return INSTANCE;
     }
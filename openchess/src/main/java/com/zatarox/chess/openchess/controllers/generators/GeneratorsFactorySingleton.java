@@ -37,6 +37,11 @@ public class GeneratorsFactorySingleton {
         public void compute(ChessBoard board, MoveVisitable move) {
             ponder.compute(board, move);
         }
+
+        @Override
+        public int score(ChessBoard board, int move) {
+            return ponder.score(board, move);
+        }
     }
 
     private final Map<Piece, Generator> generators = new EnumMap<>(Piece.class);
@@ -39,7 +39,7 @@ final class KingGenerator extends AbstractPushGenerator {
     }
 
     @Override
-    protected long coverage(Square index, BitBoard all, BoardSide turn) {
+    protected long coverage(Square index, long all, BoardSide turn) {
         return king[index.ordinal()];
     }
 
@@ -44,7 +44,7 @@ final class KnightGenerator extends AbstractPushGenerator {
     }
 
     @Override
-    protected long coverage(Square index, BitBoard all, BoardSide turn) {
+    protected long coverage(Square index, long all, BoardSide turn) {
         return knight[index.ordinal()];
     }
 
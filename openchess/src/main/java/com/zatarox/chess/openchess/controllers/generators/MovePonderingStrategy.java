@@ -22,4 +22,11 @@ public interface MovePonderingStrategy {
 
     void compute(ChessBoard board, MoveVisitable move);
 
+    /**
+     * @param board Current chessboard, before the move
+     * @param move Packed move
+     * @return Ordering score of the move, highest first
+     */
+    int score(ChessBoard board, int move);
+
 }
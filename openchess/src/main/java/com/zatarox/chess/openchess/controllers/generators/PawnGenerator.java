@@ -17,8 +17,10 @@ package com.zatarox.chess.openchess.controllers.generators;
 
 import com.zatarox.chess.openchess.models.materials.*;
 import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveBuffer;
 import com.zatarox.chess.openchess.models.moves.MoveVisitable;
 import com.zatarox.chess.openchess.models.moves.MovesFactorySingleton;
+import com.zatarox.chess.openchess.models.moves.PackedMove;
 import java.util.PriorityQueue;
 import java.util.Queue;
 
@@ -34,27 +36,20 @@ final class PawnGenerator extends AbstractPushGenerator {
 
     @Override
     public Queue<Move> fills(ChessBoard board, Square square) {
-        final BitBoard all = board.getSide(BoardSide.WHITE).getSnapshot();
-        all.merge(board.getSide(BoardSide.BLACK).getSnapshot());
+        final long all = board.getOccupancy();
         final BoardSide color = board.getStone(square).getSide();
-        long mask = color == BoardSide.WHITE
+        final long mask = color == BoardSide.WHITE
                 ? squareAttacked(square.toBitMask(), +8, b_u)
                 : squareAttacked(square.toBitMask(), -8, b_d);
-        final BitBoard attacks = new BitBoard(mask & ~all.unwrap());
+        final long push = mask & ~all;
         final Queue<Move> result = new PriorityQueue<>();
-        if (!attacks.isEmpty()) {
-            Move move = MovesFactorySingleton.getInstance().createNormal(square, attacks.iterator().next());
+        if (push != 0) {
+            Move move = MovesFactorySingleton.getInstance().createNormal(square, BitBoard.first(push));
             getPonder().compute(board, (MoveVisitable) move);
             result.add(move);
-            attacks.clear();
-            if (square.getRankIndex() == Square.Rank._2 || square.getRankIndex() == Square.Rank._7) {
-                mask = color == BoardSide.WHITE
-                        ? squareAttacked(square.toBitMask(), +16, b_u)
-                        : squareAttacked(square.toBitMask(), -16, b_d);
-                attacks.merge(new BitBoard(mask));
-            }
-            if (!attacks.isEmpty()) {
-                move = MovesFactorySingleton.getInstance().createCharge(square, attacks.iterator().next());
+            final long charge = charge(square, color, all);
+            if (charge != 0) {
+                move = MovesFactorySingleton.getInstance().createCharge(square, BitBoard.first(charge));
                 getPonder().compute(board, (MoveVisitable) move);
                 result.add(move);
             }
@@ -64,13 +59,13 @@ final class PawnGenerator extends AbstractPushGenerator {
 
     @Override
     public Queue<Move> attacks(ChessBoard board, Square square) {
-        final BitBoard all = board.getSide(BoardSide.WHITE).getSnapshot();
-        all.merge(board.getSide(BoardSide.BLACK).getSnapshot());
-        final BitBoard attacks = new BitBoard(coverage(square, all, board.getTurn()) & board.getSide(board.getStone(square).getSide().flip()).getSnapshot().unwrap());
+        final BoardSide attacker = board.getStone(square).getSide();
+        final long attacks = captures(square, attacker) & board.getSide(attacker.flip()).getOccupancy();
         final Queue<Move> result = new PriorityQueue<>();
-        for (Square to : attacks) {
-            if (to.getRankIndex() == Square.Rank._1 && board.getStone(square).getSide() == BoardSide.BLACK
-                    || to.getRankIndex() == Square.Rank._8 && board.getStone(square).getSide() == BoardSide.WHITE) {
+        for (long bits = attacks; bits != 0; bits = BitBoard.pop(bits)) {
+            final Square to = BitBoard.first(bits);
+            if (to.getRankIndex() == Square.Rank._1 && attacker == BoardSide.BLACK
+                    || to.getRankIndex() == Square.Rank._8 && attacker == BoardSide.WHITE) {
                 for (Piece piece : new Piece[]{Piece.BISHOP, Piece.KNIGHT, Piece.QUEEN, Piece.ROOK}) {
                     final Move move = MovesFactorySingleton.getInstance().createPromotion(square, to, piece);
                     getPonder().compute(board, (MoveVisitable) move);
@@ -82,8 +77,7 @@ final class PawnGenerator extends AbstractPushGenerator {
                 result.add(move);
             }
         }
-        final BoardSide attacker = board.getStone(square).getSide();
-        if (board.getSide(attacker).isEnpassant()) {
+        if (isEnpassant(board, square, attacker)) {
             final Move move = MovesFactorySingleton.getInstance().createEnpassant(square, board.getSide(attacker).getEnpassant());
             getPonder().compute(board, (MoveVisitable) move);
             result.add(move);
@@ -91,6 +85,71 @@ final class PawnGenerator extends AbstractPushGenerator {
         return result;
     }
 
+    @Override
+    protected void fills(ChessBoard board, Square square, long all, MoveBuffer buffer) {
+        final BoardSide color = board.getStone(square).getSide();
+        final long single = color == BoardSide.WHITE
+                ? squareAttacked(square.toBitMask(), +8, b_u)
+                : squareAttacked(square.toBitMask(), -8, b_d);
+        if ((single & ~all) != 0) {
+            add(board, buffer, PackedMove.createNormal(square, BitBoard.first(single)));
+            final long charge = charge(square, color, all);
+            if (charge != 0) {
+                add(board, buffer, PackedMove.createCharge(square, BitBoard.first(charge)));
+            }
+        }
+    }
+
+    @Override
+    protected void attacks(ChessBoard board, Square square, long all, MoveBuffer buffer) {
+        final BoardSide attacker = board.getStone(square).getSide();
+        final long attacks = captures(square, attacker) & board.getSide(attacker.flip()).getOccupancy();
+        for (long bits = attacks; bits != 0; bits = BitBoard.pop(bits)) {
+            final Square to = BitBoard.first(bits);
+            final Piece captured = board.getStone(to).getPiece();
+            if (to.getRankIndex() == Square.Rank._1 && attacker == BoardSide.BLACK
+                    || to.getRankIndex() == Square.Rank._8 && attacker == BoardSide.WHITE) {
+                for (Piece piece : new Piece[]{Piece.BISHOP, Piece.KNIGHT, Piece.QUEEN, Piece.ROOK}) {
+                    add(board, buffer, PackedMove.createPromotion(square, to, piece, captured));
+                }
+            } else {
+                add(board, buffer, PackedMove.createCapture(square, to, captured));
+            }
+        }
+        if (isEnpassant(board, square, attacker)) {
+            add(board, buffer, PackedMove.createEnpassant(square, board.getSide(attacker).getEnpassant()));
+        }
+    }
+
+    /**
+     * @return Squares attacked by a pawn of the attacker side
+     */
+    private long captures(Square square, BoardSide attacker) {
+        return coverage(square, 0, attacker.flip());
+    }
+
+    /**
+     * @return Target of the double push if the pawn is on its starting rank
+     * and both squares ahead are empty, 0 otherwise
+     */
+    private long charge(Square square, BoardSide color, long all) {
+        long result = 0;
+        if (color == BoardSide.WHITE && square.getRankIndex() == Square.Rank._2) {
+            result = squareAttacked(square.toBitMask(), +16, b_u);
+        } else if (color == BoardSide.BLACK && square.getRankIndex() == Square.Rank._7) {
+            result = squareAttacked(square.toBitMask(), -16, b_d);
+        }
+        return result & ~all;
+    }
+
+    /**
+     * @return True if the pawn on the square attacks the "en passant" square
+     */
+    private boolean isEnpassant(ChessBoard board, Square square, BoardSide attacker) {
+        final Player player = board.getSide(attacker);
+        return player.isEnpassant() && (captures(square, attacker) & player.getEnpassant().toBitMask()) != 0;
+    }
+
     /**
      * Check if a "en passant" move is present because this is a prise.
      */
@@ -100,8 +159,7 @@ final class PawnGenerator extends AbstractPushGenerator {
         if(!result) {
             final BoardSide side = board.getStone(square).getSide().flip();
             if(board.getSide(side).isEnpassant()) {
-                final BitBoard pawns = new BitBoard(board.getSide(side).get(Piece.PAWN));
-                pawns.merge(new BitBoard(board.getSide(side).getEnpassant().toBitMask()));
+                final long pawns = board.getSide(side).get(Piece.PAWN).unwrap() | board.getSide(side).getEnpassant().toBitMask();
                 result = coverage(square, pawns, side) != 0;
             }
         }
@@ -117,7 +175,7 @@ final class PawnGenerator extends AbstractPushGenerator {
     }
 
     @Override
-    protected long coverage(Square index, BitBoard all, BoardSide color) {
+    protected long coverage(Square index, long all, BoardSide color) {
         return color == BoardSide.BLACK ? pawnUpwards[index.ordinal()] : pawnDownwards[index.ordinal()];
     }
 
@@ -24,7 +24,7 @@ final class QueenGenerator extends AbstractSliderGenerator {
     }
 
     @Override
-    long coverage(Square index, BitBoard all, BoardSide color) {
+    long coverage(Square index, long all, BoardSide color) {
         final AbstractGenerator rooker = (AbstractGenerator) GeneratorsFactorySingleton.getInstance().from(Piece.ROOK);
         final AbstractGenerator bishoper = (AbstractGenerator) GeneratorsFactorySingleton.getInstance().from(Piece.BISHOP);
         return rooker.coverage(index, all, color) | bishoper.coverage(index, all, color);
@@ -81,8 +81,8 @@ final class RookGenerator extends AbstractSliderGenerator {
     }
 
     @Override
-    long coverage(Square index, BitBoard all, BoardSide turn) {
-        final int i = magicTransform(all.unwrap() & rookMask[index.ordinal()], rookMagicNumber[index.ordinal()], rookShiftBits[index.ordinal()]);
+    long coverage(Square index, long all, BoardSide turn) {
+        final int i = magicTransform(all & rookMask[index.ordinal()], rookMagicNumber[index.ordinal()], rookShiftBits[index.ordinal()]);
         return rookMagic[index.ordinal()][i];
     }
 
@@ -25,6 +25,11 @@ import com.zatarox.chess.openchess.models.moves.*;
  */
 public final class WinningPonderStrategy implements MovePonderingStrategy {
 
+    /**
+     * Packed moves are scored in hundredths of the piece ponderations.
+     */
+    private static final int SCALE = 100;
+
     @Override
     public void compute(final ChessBoard board, final MoveVisitable move) {
         move.accept(new MoveVisitor() {
@@ -60,4 +65,25 @@ public final class WinningPonderStrategy implements MovePonderingStrategy {
         });
     }
 
+    @Override
+    public int score(ChessBoard board, int move) {
+        final float result;
+        switch (PackedMove.getKind(move)) {
+            case PackedMove.CASTLE:
+                result = 5000;
+                break;
+            case PackedMove.CHARGE:
+            case PackedMove.EN_PASSANT:
+                result = Piece.PAWN.getPonderation() * 2;
+                break;
+            case PackedMove.PROMOTION:
+                result = PackedMove.getPromotion(move).getPonderation() * 10;
+                break;
+            default:
+                final float piece = board.getStone(PackedMove.getFrom(move)).getPiece().getPonderation();
+                result = PackedMove.isCapture(move) ? PackedMove.getCaptured(move).getPonderation() * 10 - piece : piece;
+        }
+        return Math.round(result * SCALE);
+    }
+
 }
@@ -17,6 +17,7 @@ package com.zatarox.chess.openchess.models.materials;
 
 import java.io.Serializable;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 public final class BitBoard implements Serializable, Iterable<Square> {
@@ -109,22 +110,44 @@ public final class BitBoard implements Serializable, Iterable<Square> {
         return board == 0;
     }
 
+    /**
+     * Allocation free iteration over a raw bitboard:
+     * <code>for (long bits = board; bits != 0; bits = BitBoard.pop(bits)) { Square s = BitBoard.first(bits); }</code>
+     *
+     * @param board Raw bitboard, not empty
+     * @return The lowest square of the bitboard
+     */
+    public static Square first(long board) {
+        assert board != 0;
+        return Square.from(Long.numberOfTrailingZeros(board));
+    }
+
+    /**
+     * @param board Raw bitboard
+     * @return The bitboard without its lowest square
+     */
+    public static long pop(long board) {
+        return board & (board - 1);
+    }
+
     @Override
     public Iterator<Square> iterator() {
         return new Iterator<Square>() {
 
-            private final BitBoard bits = new BitBoard(BitBoard.this);
+            private long bits = board;
 
             @Override
-
             public boolean hasNext() {
-                return bits.getSize() > 0;
+                return bits != 0;
             }
 
             @Override
             public Square next() {
-                Square result = Square.values()[Long.numberOfTrailingZeros(bits.board)];
-                bits.unset(result);
+                if (bits == 0) {
+                    throw new NoSuchElementException();
+                }
+                final Square result = first(bits);
+                bits = pop(bits);
                 return result;
             }
 
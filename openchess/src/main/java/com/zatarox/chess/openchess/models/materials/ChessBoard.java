@@ -18,6 +18,7 @@ package com.zatarox.chess.openchess.models.materials;
 import com.zatarox.chess.openchess.models.materials.Square.File;
 import com.zatarox.chess.openchess.models.materials.Square.Rank;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.EnumMap;
 
 public final class ChessBoard implements Serializable {
@@ -27,10 +28,15 @@ public final class ChessBoard implements Serializable {
     private short halfmove = 0;
     private short fullmove = 0;
     private HashStrategy hashing = new ZobristHashStrategy();
+    /**
+     * Stone index plus one for each square, 0 when empty.
+     */
+    private final byte[] mailbox = new byte[Square.values().length];
+    private long occupancy;
 
     public ChessBoard() {
         for (BoardSide trait : BoardSide.values()) {
-            sides.put(trait, new Player());
+            sides.put(trait, new Player(this, trait));
         }
     }
 
@@ -54,10 +60,10 @@ public final class ChessBoard implements Serializable {
      */
     public void clear() {
         for (BoardSide trait : BoardSide.values()) {
-            for (Piece piece : Piece.values()) {
-                getSide(trait).get(piece).clear();
-            }
+            getSide(trait).clear();
         }
+        Arrays.fill(mailbox, (byte) 0);
+        occupancy = 0;
     }
 
     /**
@@ -93,34 +99,28 @@ public final class ChessBoard implements Serializable {
         this.halfmove = halfmove;
     }
 
+    /**
+     * @return Squares occupied by both sides
+     */
+    public long getOccupancy() {
+        return occupancy;
+    }
+
     /**
      * @param square Square to check.
      * @return True if occuped.
      */
     public boolean isOccuped(Square square) {
-        for (BoardSide t : BoardSide.values()) {
-            for (Piece p : Piece.values()) {
-                if (getSide(t).get(p).isOccuped(square)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return mailbox[square.ordinal()] != 0;
     }
 
     /**
      * @param square Square to check
-     * @return The stone (piece+color) type on the square
+     * @return The stone (piece+color) type on the square, shared instance
      */
     public Stone getStone(Square square) {
-        for (BoardSide t : BoardSide.values()) {
-            for (Piece p : Piece.values()) {
-                if (getSide(t).get(p).isOccuped(square)) {
-                    return new Stone(p, t);
-                }
-            }
-        }
-        return null;
+        final int index = mailbox[square.ordinal()];
+        return index == 0 ? null : Stone.valueOf(index - 1);
     }
 
     public void setPiece(Square square, Stone stone) throws IllegalArgumentException {
@@ -132,13 +132,17 @@ public final class ChessBoard implements Serializable {
                 throw new IllegalArgumentException("King already defined");
             }
         }
-        getSide(stone.getSide()).get(stone.getPiece()).set(square);
+        getSide(stone.getSide()).set(stone.getPiece(), square);
+        occupancy |= square.toBitMask();
+        mailbox[square.ordinal()] = (byte) (Stone.index(stone.getPiece(), stone.getSide()) + 1);
         hashing.add(stone, square);
     }
 
     public void unsetPiece(Square square) {
         final Stone stone = getStone(square);
-        getSide(stone.getSide()).get(stone.getPiece()).unset(square);
+        getSide(stone.getSide()).unset(stone.getPiece(), square);
+        occupancy &= ~square.toBitMask();
+        mailbox[square.ordinal()] = 0;
         hashing.remove(stone, square);
     }
 
@@ -146,7 +150,13 @@ public final class ChessBoard implements Serializable {
         return turn;
     }
 
+    /**
+     * @param turn Side to move, the hash changes when black is to move
+     */
     public void setTurn(BoardSide turn) {
+        if ((this.turn == BoardSide.BLACK) != (turn == BoardSide.BLACK)) {
+            hashing.flip();
+        }
         this.turn = turn;
     }
 
@@ -23,6 +23,21 @@ public interface HashStrategy {
 
     void remove(Stone stone, Square square);
 
+    /**
+     * Called when the side to move switches between white and black.
+     */
+    void flip();
+
+    /**
+     * Called when a castle right is granted or lost.
+     */
+    void toggle(BoardSide side, Castle castle);
+
+    /**
+     * Called when an "en passant" square is set or cleared.
+     */
+    void toggle(BoardSide side, Square enpassant);
+
     long hashCode64();
 
 }
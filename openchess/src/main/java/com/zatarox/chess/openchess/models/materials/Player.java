@@ -20,11 +20,25 @@ import java.util.*;
 
 public class Player implements Serializable, Iterable<Square> {
 
+    private static final Castle[] CASTLES = Castle.values();
     private final Map<Piece, BitBoard> pieces = new EnumMap(Piece.class);
-    private final Set<Castle> castles = EnumSet.noneOf(Castle.class);
+    private final CastleSet castles = new CastleSet();
+    private final ChessBoard board;
+    private final BoardSide side;
     private Square enpassant;
+    private long occupancy;
 
     public Player() {
+        this(null, null);
+    }
+
+    /**
+     * @param board Owner chessboard, its hashing follows castles and "en
+     * passant" changes
+     */
+    Player(ChessBoard board, BoardSide side) {
+        this.board = board;
+        this.side = side;
         for (Piece piece : Piece.values()) {
             pieces.put(piece, new BitBoard());
         }
@@ -34,6 +48,30 @@ public class Player implements Serializable, Iterable<Square> {
         return pieces.get(piece);
     }
 
+    void set(Piece piece, Square square) {
+        get(piece).set(square);
+        occupancy |= square.toBitMask();
+    }
+
+    void unset(Piece piece, Square square) {
+        get(piece).unset(square);
+        occupancy &= ~square.toBitMask();
+    }
+
+    void clear() {
+        for (BitBoard board : pieces.values()) {
+            board.clear();
+        }
+        occupancy = 0;
+    }
+
+    /**
+     * @return Squares occupied by any piece of this side
+     */
+    public long getOccupancy() {
+        return occupancy;
+    }
+
     public void setCastles(Set<Castle> castles) {
         this.castles.clear();
         this.castles.addAll(castles);
@@ -43,6 +81,22 @@ public class Player implements Serializable, Iterable<Square> {
         return castles;
     }
 
+    /**
+     * @return Castle rights, bit i set for the castle of ordinal i
+     */
+    public int getCastleMask() {
+        return castles.getMask();
+    }
+
+    /**
+     * Iterator free counterpart of {@link #setCastles(Set)}.
+     *
+     * @param mask Castle rights as returned by {@link #getCastleMask()}
+     */
+    public void setCastleMask(int mask) {
+        castles.setMask(mask);
+    }
+
     public boolean isEnpassant() {
         return enpassant != null;
     }
@@ -52,15 +106,19 @@ public class Player implements Serializable, Iterable<Square> {
     }
 
     public void setEnpassant(Square enpassant) {
+        if (board != null && this.enpassant != enpassant) {
+            if (this.enpassant != null) {
+                board.getHashing().toggle(side, this.enpassant);
+            }
+            if (enpassant != null) {
+                board.getHashing().toggle(side, enpassant);
+            }
+        }
         this.enpassant = enpassant;
     }
 
     public BitBoard getSnapshot() {
-        final BitBoard result = new BitBoard();
-        for (Piece piece : Piece.values()) {
-            result.merge(get(piece));
-        }
-        return result;
+        return new BitBoard(occupancy);
     }
     
     @Override
@@ -68,4 +126,105 @@ public class Player implements Serializable, Iterable<Square> {
         return getSnapshot().iterator();
     }
 
+    /**
+     * Castle rights updating the chessboard hashing on each change, one bit
+     * per castle ordinal.
+     */
+    private final class CastleSet extends AbstractSet<Castle> implements Serializable {
+
+        private int rights;
+
+        private void toggle(Castle castle) {
+            if (board != null) {
+                board.getHashing().toggle(side, castle);
+            }
+        }
+
+        int getMask() {
+            return rights;
+        }
+
+        void setMask(int mask) {
+            final int changed = rights ^ mask;
+            rights = mask;
+            for (Castle castle : CASTLES) {
+                if ((changed & (1 << castle.ordinal())) != 0) {
+                    toggle(castle);
+                }
+            }
+        }
+
+        @Override
+        public boolean add(Castle castle) {
+            final int bit = 1 << castle.ordinal();
+            final boolean result = (rights & bit) == 0;
+            if (result) {
+                rights |= bit;
+                toggle(castle);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean remove(Object castle) {
+            final boolean result = contains(castle);
+            if (result) {
+                rights &= ~(1 << ((Castle) castle).ordinal());
+                toggle((Castle) castle);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean contains(Object castle) {
+            return castle instanceof Castle && (rights & (1 << ((Castle) castle).ordinal())) != 0;
+        }
+
+        @Override
+        public void clear() {
+            setMask(0);
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(rights);
+        }
+
+        @Override
+        public Iterator<Castle> iterator() {
+            return new Iterator<Castle>() {
+
+                private int index;
+                private Castle last;
+
+                @Override
+                public boolean hasNext() {
+                    while (index < CASTLES.length && (rights & (1 << index)) == 0) {
+                        index++;
+                    }
+                    return index < CASTLES.length;
+                }
+
+                @Override
+                public Castle next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = CASTLES[index++];
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    CastleSet.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+
+    }
+
 }
@@ -33,6 +33,10 @@ public enum Square {
     //
     A8, B8, C8, D8, E8, F8, G8, H8;
 
+    private static final Square[] SQUARES = values();
+    private static final File[] FILES = File.values();
+    private static final Rank[] RANKS = Rank.values();
+
     private static final Square[] longWhite = new Square[]{A1, B1, C1, D1, E1};
     private static final Square[] shortWhite = new Square[]{E1, F1, G1, H1};
     private static final Square[] longBlack = new Square[]{A8, B8, C8, D8, E8};
@@ -61,15 +65,24 @@ public enum Square {
     }
 
     public File getFileIndex() {
-        return File.values()[this.ordinal() % 8];
+        return FILES[this.ordinal() & 7];
     }
 
     public Rank getRankIndex() {
-        return Rank.values()[this.ordinal() / 8];
+        return RANKS[this.ordinal() >>> 3];
     }
 
     public static Square from(File file, Rank rank) {
-        return values()[8 * rank.ordinal() + file.ordinal()];
+        return SQUARES[8 * rank.ordinal() + file.ordinal()];
+    }
+
+    /**
+     * Unlike values(), don't clone the enumeration array.
+     *
+     * @param index Square ordinal, from 0 (A1) to 63 (H8)
+     */
+    public static Square from(int index) {
+        return SQUARES[index];
     }
 
     public static Square[] getCastling(Castle castle, BoardSide side) {
@@ -19,6 +19,17 @@ import java.io.Serializable;
 
 public class Stone implements Serializable {
 
+    private static final int PIECES = Piece.values().length;
+    private static final Stone[] STONES = new Stone[BoardSide.values().length * PIECES];
+
+    static {
+        for (BoardSide side : BoardSide.values()) {
+            for (Piece piece : Piece.values()) {
+                STONES[index(piece, side)] = new Stone(piece, side);
+            }
+        }
+    }
+
     private final Piece piece;
     private final BoardSide side;
 
@@ -34,6 +45,27 @@ public class Stone implements Serializable {
         this.side = side;
     }
 
+    /**
+     * @return The shared immutable stone, no allocation
+     */
+    public static Stone valueOf(Piece piece, BoardSide side) {
+        return STONES[index(piece, side)];
+    }
+
+    /**
+     * @param index Value returned by {@link #index(Piece, BoardSide)}
+     */
+    static Stone valueOf(int index) {
+        return STONES[index];
+    }
+
+    /**
+     * @return Dense index of the stone, from 0 to 11
+     */
+    static int index(Piece piece, BoardSide side) {
+        return side.ordinal() * PIECES + piece.ordinal();
+    }
+
     public Piece getPiece() {
         return piece;
     }
@@ -15,29 +15,46 @@
  */
 package com.zatarox.chess.openchess.models.materials;
 
-import java.nio.ByteBuffer;
-import java.security.SecureRandom;
+import java.util.Random;
 
+/**
+ * Zobrist hashing with keys shared by all boards, so that hashes can be
+ * compared between boards and runs.
+ */
 public final class ZobristHashStrategy implements HashStrategy {
 
-    private long hash;
-    private final long[][][] keys = new long[BoardSide.values().length][Square.values().length][Piece.values().length];
+    /**
+     * Fixed seed: the keys are the same at each run.
+     */
+    private static final long SEED = 0x5DEECE66DL;
 
-    public ZobristHashStrategy() {
-        final SecureRandom sr = new SecureRandom();
+    private static final long[][][] PIECES = new long[BoardSide.values().length][Square.values().length][Piece.values().length];
+    private static final long[][] CASTLES = new long[BoardSide.values().length][Castle.values().length];
+    private static final long[][] ENPASSANTS = new long[BoardSide.values().length][Square.File.values().length];
+    private static final long TURN;
+
+    static {
+        final Random random = new Random(SEED);
         for (BoardSide side : BoardSide.values()) {
             for (Square square : Square.values()) {
-                final byte[] rndBytes = new byte[8];
                 for (Piece piece : Piece.values()) {
-                    sr.nextBytes(rndBytes);
-                    keys[side.ordinal()][square.ordinal()][piece.ordinal()] = ByteBuffer.wrap(rndBytes).asLongBuffer().get();
+                    PIECES[side.ordinal()][square.ordinal()][piece.ordinal()] = random.nextLong();
                 }
             }
+            for (Castle castle : Castle.values()) {
+                CASTLES[side.ordinal()][castle.ordinal()] = random.nextLong();
+            }
+            for (Square.File file : Square.File.values()) {
+                ENPASSANTS[side.ordinal()][file.ordinal()] = random.nextLong();
+            }
         }
+        TURN = random.nextLong();
     }
 
-    private long get(Stone stone, Square square) {
-        return keys[stone.getSide().ordinal()][square.ordinal()][stone.getPiece().ordinal()];
+    private long hash;
+
+    private static long get(Stone stone, Square square) {
+        return PIECES[stone.getSide().ordinal()][square.ordinal()][stone.getPiece().ordinal()];
     }
 
     @Override
@@ -50,6 +67,24 @@ public final class ZobristHashStrategy implements HashStrategy {
         hash ^= get(stone, square);
     }
 
+    @Override
+    public void flip() {
+        hash ^= TURN;
+    }
+
+    @Override
+    public void toggle(BoardSide side, Castle castle) {
+        hash ^= CASTLES[side.ordinal()][castle.ordinal()];
+    }
+
+    /**
+     * Only the file matters, like in most Zobrist schemes.
+     */
+    @Override
+    public void toggle(BoardSide side, Square enpassant) {
+        hash ^= ENPASSANTS[side.ordinal()][enpassant.getFileIndex().ordinal()];
+    }
+
     @Override
     public long hashCode64() {
         return hash;
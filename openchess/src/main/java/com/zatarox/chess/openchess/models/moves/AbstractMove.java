@@ -74,7 +74,7 @@ public abstract class AbstractMove implements Serializable, Comparable<AbstractM
         if (kingboard.isEmpty()) {
             throw new IllegalMoveException("No king");
         }
-        final Square king = kingboard.iterator().next();
+        final Square king = BitBoard.first(kingboard.unwrap());
         if (GeneratorFacade.getInstance().isEnPrise(board, king)) {
             throw new SelfMateMoveException();
         }
@@ -37,7 +37,7 @@ public final class EnPassantMove extends BasicMove {
     @Override
     protected void doUnplay(ChessBoard board) throws IllegalMoveException {
         super.doUnplay(board);
-        board.setPiece(Square.from(getTo().getFileIndex(), getFrom().getRankIndex()), new Stone(Piece.PAWN, board.getTurn().flip()));
+        board.setPiece(Square.from(getTo().getFileIndex(), getFrom().getRankIndex()), Stone.valueOf(Piece.PAWN, board.getTurn().flip()));
         board.getSide(board.getTurn().flip()).setEnpassant(enpassant);
         enpassant = null;
     }
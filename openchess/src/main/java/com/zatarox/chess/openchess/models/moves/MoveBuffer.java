@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.models.moves;
+
+/**
+ * Reusable list of packed moves with their ordering scores, meant to be
+ * allocated once per ply. Moves are not sorted when added: {@link #next()}
+ * selects the best remaining one, so a cutoff after the first moves does
+ * not pay for sorting the others.
+ */
+public final class MoveBuffer {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] moves;
+    private final int[] scores;
+    private int size;
+    private int cursor;
+
+    public MoveBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximum number of moves, 218 is enough for any legal
+     * position
+     */
+    public MoveBuffer(int capacity) {
+        moves = new int[capacity];
+        scores = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+        cursor = 0;
+    }
+
+    /**
+     * @param move Packed move
+     * @param score Ordering score, highest first
+     */
+    public void add(int move, int score) {
+        moves[size] = move;
+        scores[size] = score;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        assert index < size;
+        return moves[index];
+    }
+
+    public int getScore(int index) {
+        assert index < size;
+        return scores[index];
+    }
+
+    /**
+     * @return true if {@link #next()} has moves left to pick
+     */
+    public boolean hasNext() {
+        return cursor < size;
+    }
+
+    /**
+     * Selects the best scored move not picked yet and swaps it to the
+     * cursor.
+     *
+     * @return The selected packed move
+     */
+    public int next() {
+        assert hasNext();
+        int best = cursor;
+        for (int i = cursor + 1; i < size; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        final int move = moves[best];
+        final int score = scores[best];
+        moves[best] = moves[cursor];
+        scores[best] = scores[cursor];
+        moves[cursor] = move;
+        scores[cursor] = score;
+        cursor++;
+        return move;
+    }
+
+    /**
+     * Restarts the selection, the moves already picked come back in order.
+     */
+    public void rewind() {
+        cursor = 0;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.models.moves;
+
+import com.zatarox.chess.openchess.models.materials.BoardSide;
+import com.zatarox.chess.openchess.models.materials.ChessBoard;
+import com.zatarox.chess.openchess.models.materials.Piece;
+import com.zatarox.chess.openchess.models.materials.Square;
+
+/**
+ * Board state lost by a packed move, filled by
+ * {@link PackedMove#play(ChessBoard, int, MoveUndo)} and consumed by
+ * {@link PackedMove#unplay(ChessBoard, int, MoveUndo)}. Allocate one per ply
+ * and reuse it.
+ */
+public final class MoveUndo {
+
+    private int whiteCastles;
+    private int blackCastles;
+    private Square whiteEnpassant;
+    private Square blackEnpassant;
+    private Piece captured;
+
+    /**
+     * @return Piece removed by the last played move, null if none
+     */
+    public Piece getCaptured() {
+        return captured;
+    }
+
+    void setCaptured(Piece captured) {
+        this.captured = captured;
+    }
+
+    void save(ChessBoard board) {
+        whiteCastles = board.getSide(BoardSide.WHITE).getCastleMask();
+        blackCastles = board.getSide(BoardSide.BLACK).getCastleMask();
+        whiteEnpassant = board.getSide(BoardSide.WHITE).getEnpassant();
+        blackEnpassant = board.getSide(BoardSide.BLACK).getEnpassant();
+        captured = null;
+    }
+
+    void restore(ChessBoard board) {
+        board.getSide(BoardSide.WHITE).setCastleMask(whiteCastles);
+        board.getSide(BoardSide.BLACK).setCastleMask(blackCastles);
+        board.getSide(BoardSide.WHITE).setEnpassant(whiteEnpassant);
+        board.getSide(BoardSide.BLACK).setEnpassant(blackEnpassant);
+    }
+
+}
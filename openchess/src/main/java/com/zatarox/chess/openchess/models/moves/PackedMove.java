@@ -0,0 +1,320 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.models.moves;
+
+import com.zatarox.chess.openchess.controllers.generators.GeneratorFacade;
+import com.zatarox.chess.openchess.models.materials.*;
+import com.zatarox.chess.openchess.models.moves.exceptions.IllegalMoveException;
+import com.zatarox.chess.openchess.models.moves.exceptions.SelfMateMoveException;
+
+/**
+ * Allocation free move representation: a move packed in an int, with its
+ * static codec and play/unplay.
+ *
+ * Bits 0-5 hold the from square, 6-11 the to square, 12-14 the kind, 15-17
+ * the promotion piece and 18-20 the captured piece. Pieces are stored as
+ * ordinal + 1, 0 meaning none.
+ */
+public final class PackedMove {
+
+    /**
+     * Never a valid move, from and to are the same square.
+     */
+    public static final int NONE = 0;
+
+    public static final int NORMAL = 0;
+    public static final int CHARGE = 1;
+    public static final int EN_PASSANT = 2;
+    public static final int PROMOTION = 3;
+    public static final int CASTLE = 4;
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private static final int TO_SHIFT = 6;
+    private static final int KIND_SHIFT = 12;
+    private static final int PROMOTION_SHIFT = 15;
+    private static final int CAPTURED_SHIFT = 18;
+    private static final int SQUARE_MASK = 0x3f;
+    private static final int FIELD_MASK = 0x7;
+
+    private PackedMove() {
+    }
+
+    /**
+     * @param from Start square
+     * @param to Target square
+     * @param kind One of {@link #NORMAL}, {@link #CHARGE}, {@link #EN_PASSANT},
+     * {@link #PROMOTION} or {@link #CASTLE}
+     * @param promotion Promoted piece, or null
+     * @param captured Captured piece, or null
+     * @return The packed move
+     */
+    public static int create(Square from, Square to, int kind, Piece promotion, Piece captured) {
+        assert from != null;
+        assert to != null;
+        assert from != to;
+        return from.ordinal()
+                | to.ordinal() << TO_SHIFT
+                | kind << KIND_SHIFT
+                | (promotion == null ? 0 : promotion.ordinal() + 1) << PROMOTION_SHIFT
+                | (captured == null ? 0 : captured.ordinal() + 1) << CAPTURED_SHIFT;
+    }
+
+    public static int createNormal(Square from, Square to) {
+        return create(from, to, NORMAL, null, null);
+    }
+
+    public static int createCharge(Square from, Square to) {
+        return create(from, to, CHARGE, null, null);
+    }
+
+    public static int createCapture(Square from, Square to, Piece captured) {
+        assert captured != null;
+        return create(from, to, NORMAL, null, captured);
+    }
+
+    public static int createEnpassant(Square from, Square to) {
+        return create(from, to, EN_PASSANT, null, Piece.PAWN);
+    }
+
+    /**
+     * @param captured Piece on the promotion square, null if none
+     */
+    public static int createPromotion(Square from, Square to, Piece promotion, Piece captured) {
+        assert promotion != null;
+        return create(from, to, PROMOTION, promotion, captured);
+    }
+
+    public static int createCastle(Castle castle, BoardSide side) {
+        final boolean white = side == BoardSide.WHITE;
+        final Square to = castle == Castle.SHORT ? (white ? Square.G1 : Square.G8) : (white ? Square.C1 : Square.C8);
+        return create(white ? Square.E1 : Square.E8, to, CASTLE, null, null);
+    }
+
+    /**
+     * @param move A move object
+     * @return The same move, packed
+     */
+    public static int valueOf(Move move) {
+        final int[] result = new int[1];
+        ((MoveVisitable) move).accept(new MoveVisitor() {
+            @Override
+            public void visit(BasicMove visit) {
+                result[0] = createNormal(visit.getFrom(), visit.getTo());
+            }
+
+            @Override
+            public void visit(CaptureMove visit) {
+                result[0] = createCapture(visit.getFrom(), visit.getTo(), visit.getCaptured().getPiece());
+            }
+
+            @Override
+            public void visit(CastleMove visit) {
+                result[0] = create(visit.getFrom(), visit.getTo(), CASTLE, null, null);
+            }
+
+            @Override
+            public void visit(ChargeMove visit) {
+                result[0] = createCharge(visit.getFrom(), visit.getTo());
+            }
+
+            @Override
+            public void visit(EnPassantMove visit) {
+                result[0] = createEnpassant(visit.getFrom(), visit.getTo());
+            }
+
+            @Override
+            public void visit(PromotionMove visit) {
+                result[0] = createPromotion(visit.getFrom(), visit.getTo(), visit.getPromotion(), null);
+            }
+        });
+        return result[0];
+    }
+
+    public static Square getFrom(int move) {
+        return Square.from(move & SQUARE_MASK);
+    }
+
+    public static Square getTo(int move) {
+        return Square.from((move >>> TO_SHIFT) & SQUARE_MASK);
+    }
+
+    public static int getKind(int move) {
+        return (move >>> KIND_SHIFT) & FIELD_MASK;
+    }
+
+    /**
+     * @return Promoted piece, null if none
+     */
+    public static Piece getPromotion(int move) {
+        final int piece = (move >>> PROMOTION_SHIFT) & FIELD_MASK;
+        return piece == 0 ? null : PIECES[piece - 1];
+    }
+
+    /**
+     * @return Captured piece, null if none or unknown for a promotion
+     */
+    public static Piece getCaptured(int move) {
+        final int piece = (move >>> CAPTURED_SHIFT) & FIELD_MASK;
+        return piece == 0 ? null : PIECES[piece - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & FIELD_MASK) != 0;
+    }
+
+    /**
+     * Play a move on chessboard, but not change player turn flag. An illegal
+     * move leaves the board unchanged.
+     *
+     * @param board Chess where move will be played
+     * @param move Packed move
+     * @param undo Receives the state needed by
+     * {@link #unplay(ChessBoard, int, MoveUndo)}
+     * @throws IllegalMoveException
+     * @throws SelfMateMoveException The move was taken back since it left the
+     * king in check
+     */
+    public static void play(ChessBoard board, int move, MoveUndo undo) throws IllegalMoveException, SelfMateMoveException {
+        final Square from = getFrom(move);
+        final Square to = getTo(move);
+        final Stone stone = board.getStone(from);
+        if (stone == null) {
+            throw new IllegalMoveException("No piece");
+        }
+        final BoardSide side = stone.getSide();
+        undo.save(board);
+        switch (getKind(move)) {
+            case NORMAL:
+                if (isCapture(move)) {
+                    final Stone captured = board.getStone(to);
+                    if (captured == null) {
+                        throw new IllegalMoveException("No piece to capture");
+                    }
+                    if (captured.getSide() == side) {
+                        throw new IllegalMoveException("Can't capture friend piece");
+                    }
+                    undo.setCaptured(captured.getPiece());
+                    board.unsetPiece(to);
+                }
+                move(board, from, to);
+                break;
+            case CHARGE:
+                move(board, from, to);
+                board.getSide(side).setEnpassant(Square.from((from.ordinal() + to.ordinal()) / 2));
+                break;
+            case EN_PASSANT:
+                final Square target = Square.from(to.getFileIndex(), from.getRankIndex());
+                if (!Stone.valueOf(Piece.PAWN, side.flip()).equals(board.getStone(target))) {
+                    throw new IllegalMoveException("No piece to capture");
+                }
+                move(board, from, to);
+                board.unsetPiece(target);
+                board.getSide(side).setEnpassant(null);
+                undo.setCaptured(Piece.PAWN);
+                break;
+            case PROMOTION:
+                board.unsetPiece(from);
+                if (board.isOccuped(to)) {
+                    undo.setCaptured(board.getStone(to).getPiece());
+                    board.unsetPiece(to);
+                }
+                board.setPiece(to, Stone.valueOf(getPromotion(move), side));
+                break;
+            case CASTLE:
+                move(board, from, to);
+                move(board, getCastleRookFrom(to), getCastleRookTo(to));
+                board.getSide(side).getCastles().clear();
+                break;
+            default:
+                throw new IllegalMoveException("Unknown move kind");
+        }
+        final BitBoard kingboard = board.getSide(side).get(Piece.KING);
+        if (!kingboard.isEmpty() && GeneratorFacade.getInstance().isEnPrise(board, BitBoard.first(kingboard.unwrap()))) {
+            unplay(board, move, undo);
+            throw new SelfMateMoveException();
+        }
+    }
+
+    /**
+     * Unplay a move on chessboard, but not change player turn flag.
+     *
+     * @param board Chessboard unplay move
+     * @param move Packed move, the last one played
+     * @param undo State saved when the move was played
+     * @throws IllegalMoveException
+     */
+    public static void unplay(ChessBoard board, int move, MoveUndo undo) throws IllegalMoveException {
+        final Square from = getFrom(move);
+        final Square to = getTo(move);
+        final Stone stone = board.getStone(to);
+        if (stone == null) {
+            throw new IllegalMoveException("Piece not found");
+        }
+        final BoardSide side = stone.getSide();
+        switch (getKind(move)) {
+            case NORMAL:
+            case CHARGE:
+                move(board, to, from);
+                if (undo.getCaptured() != null) {
+                    board.setPiece(to, Stone.valueOf(undo.getCaptured(), side.flip()));
+                }
+                break;
+            case EN_PASSANT:
+                move(board, to, from);
+                board.setPiece(Square.from(to.getFileIndex(), from.getRankIndex()), Stone.valueOf(Piece.PAWN, side.flip()));
+                break;
+            case PROMOTION:
+                board.unsetPiece(to);
+                board.setPiece(from, Stone.valueOf(Piece.PAWN, side));
+                if (undo.getCaptured() != null) {
+                    board.setPiece(to, Stone.valueOf(undo.getCaptured(), side.flip()));
+                }
+                break;
+            case CASTLE:
+                move(board, getCastleRookTo(to), getCastleRookFrom(to));
+                move(board, to, from);
+                break;
+            default:
+                throw new IllegalMoveException("Unknown move kind");
+        }
+        undo.restore(board);
+    }
+
+    private static void move(ChessBoard board, Square from, Square to) {
+        final Stone stone = board.getStone(from);
+        board.unsetPiece(from);
+        board.setPiece(to, stone);
+    }
+
+    private static Square getCastleRookFrom(Square kingTo) {
+        return Square.from(kingTo.getFileIndex() == Square.File.G ? kingTo.ordinal() + 1 : kingTo.ordinal() - 2);
+    }
+
+    private static Square getCastleRookTo(Square kingTo) {
+        return Square.from(kingTo.getFileIndex() == Square.File.G ? kingTo.ordinal() - 1 : kingTo.ordinal() + 1);
+    }
+
+    public static String toString(int move) {
+        final StringBuilder result = new StringBuilder();
+        result.append(getFrom(move)).append(isCapture(move) ? 'x' : '-').append(getTo(move));
+        if (getPromotion(move) != null) {
+            result.append('=').append(getPromotion(move));
+        }
+        return result.toString();
+    }
+
+}
@@ -40,16 +40,16 @@ public final class PromotionMove extends AbstractMove {
             captured = board.getStone(getTo()).getPiece();
             board.unsetPiece(getTo());
         }
-        board.setPiece(getTo(), new Stone(promotion, color));
+        board.setPiece(getTo(), Stone.valueOf(promotion, color));
     }
 
     @Override
     protected void doUnplay(ChessBoard board) throws IllegalMoveException {
         final BoardSide color = board.getStone(getTo()).getSide();
-        board.setPiece(getFrom(), new Stone(Piece.PAWN, color));
+        board.setPiece(getFrom(), Stone.valueOf(Piece.PAWN, color));
         board.unsetPiece(getTo());
         if (captured != null) {
-            board.setPiece(getTo(), new Stone(captured, color.flip()));
+            board.setPiece(getTo(), Stone.valueOf(captured, color.flip()));
             captured = null;
         }
     }
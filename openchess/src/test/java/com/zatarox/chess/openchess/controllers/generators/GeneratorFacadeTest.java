@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.controllers.generators;
+
+import com.zatarox.chess.openchess.models.materials.ChessBoard;
+import com.zatarox.chess.openchess.models.materials.Piece;
+import com.zatarox.chess.openchess.models.materials.Square;
+import com.zatarox.chess.openchess.models.moves.Move;
+import com.zatarox.chess.openchess.models.moves.MoveBuffer;
+import com.zatarox.chess.openchess.models.moves.PackedMove;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GeneratorFacadeTest {
+
+    private static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/6bb/8/R7/2pPppk1/4P3/P7/K7 b - d3 0 1",
+        "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+        "4k3/8/8/8/1p1pP2p/8/8/4K3 b - e3 0 1",
+        "4k3/8/8/8/4n3/8/3PP3/4K3 w - - 0 1"
+    };
+
+    private static MoveBuffer generate(String fen) {
+        final MoveBuffer result = new MoveBuffer();
+        GeneratorFacade.getInstance().alls(new ForsythEdwardsNotation(fen).create(), result);
+        return result;
+    }
+
+    private static Set<Integer> kinds(MoveBuffer buffer, int kind) {
+        final Set<Integer> result = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            if (PackedMove.getKind(buffer.get(i)) == kind) {
+                result.add(buffer.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Queued promotions do not know the captured piece.
+     */
+    private static int normalize(int move) {
+        return PackedMove.getKind(move) == PackedMove.PROMOTION
+                ? PackedMove.createPromotion(PackedMove.getFrom(move), PackedMove.getTo(move), PackedMove.getPromotion(move), null)
+                : move;
+    }
+
+    @Test
+    public void bufferMatchesQueues() {
+        final MoveBuffer buffer = new MoveBuffer();
+        for (String fen : POSITIONS) {
+            final ChessBoard board = new ForsythEdwardsNotation(fen).create();
+            final Set<Integer> expected = new HashSet<>();
+            for (Move move : GeneratorFacade.getInstance().alls(board)) {
+                expected.add(PackedMove.valueOf(move));
+            }
+            buffer.clear();
+            GeneratorFacade.getInstance().alls(board, buffer);
+            final Set<Integer> actual = new HashSet<>();
+            for (int i = 0; i < buffer.size(); i++) {
+                actual.add(normalize(buffer.get(i)));
+            }
+            assertEquals(fen, expected, actual);
+        }
+    }
+
+    @Test
+    public void bufferOrderedByScore() {
+        final ChessBoard board = new ForsythEdwardsNotation(POSITIONS[1]).create();
+        final MoveBuffer buffer = new MoveBuffer();
+        GeneratorFacade.getInstance().alls(board, buffer);
+        int previous = Integer.MAX_VALUE;
+        int count = 0;
+        while (buffer.hasNext()) {
+            buffer.next();
+            final int score = buffer.getScore(count++);
+            assertTrue(score <= previous);
+            previous = score;
+        }
+        assertEquals(buffer.size(), count);
+    }
+
+    @Test
+    public void enpassantOnlyFromAdjacentPawns() {
+        final MoveBuffer buffer = generate("4k3/8/8/8/1p1pP2p/8/8/4K3 b - e3 0 1");
+        assertEquals(Collections.singleton(PackedMove.createEnpassant(Square.D4, Square.E3)), kinds(buffer, PackedMove.EN_PASSANT));
+    }
+
+    @Test
+    public void chargeBlocked() {
+        final MoveBuffer buffer = generate("4k3/8/8/8/4n3/8/3PP3/4K3 w - - 0 1");
+        assertEquals(Collections.singleton(PackedMove.createCharge(Square.D2, Square.D4)), kinds(buffer, PackedMove.CHARGE));
+    }
+
+    @Test
+    public void pawnCapturesForward() {
+        final MoveBuffer buffer = generate("4k3/8/8/3p1p2/4P3/8/8/4K3 w - - 0 1");
+        final Set<Integer> captures = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            if (PackedMove.isCapture(buffer.get(i))) {
+                captures.add(buffer.get(i));
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList(
+                PackedMove.createCapture(Square.E4, Square.D5, Piece.PAWN),
+                PackedMove.createCapture(Square.E4, Square.F5, Piece.PAWN))), captures);
+    }
+
+}
@@ -56,6 +56,17 @@ public final class BitBoardTest {
         }
     }
 
+    @Test
+    public void testPop() {
+        long bits = Square.C7.toBitMask() | Square.B1.toBitMask() | Square.H8.toBitMask();
+        assertThat(BitBoard.first(bits), is(Square.B1));
+        bits = BitBoard.pop(bits);
+        assertThat(BitBoard.first(bits), is(Square.C7));
+        bits = BitBoard.pop(bits);
+        assertThat(BitBoard.first(bits), is(Square.H8));
+        assertThat(BitBoard.pop(bits), is(0L));
+    }
+
     @Test
     public void testEquals() {
         final BitBoard b1 = new BitBoard();
@@ -65,6 +65,31 @@ public final class ChessBoardTest {
         assertThat(instance.getHashing().hashCode64(), is(0L));
     }
 
+    @Test
+    public void testMailbox() {
+        instance.setPiece(Square.E4, new Stone(Piece.KNIGHT, BoardSide.BLACK));
+        assertSame(Stone.valueOf(Piece.KNIGHT, BoardSide.BLACK), instance.getStone(Square.E4));
+        assertNull(instance.getStone(Square.E5));
+        instance.clear();
+        assertFalse(instance.isOccuped(Square.E4));
+        assertNull(instance.getStone(Square.E4));
+    }
+
+    @Test
+    public void testOccupancy() {
+        instance.setPiece(Square.A1, new Stone(Piece.ROOK, BoardSide.WHITE));
+        instance.setPiece(Square.H8, new Stone(Piece.ROOK, BoardSide.BLACK));
+        assertThat(instance.getSide(BoardSide.WHITE).getOccupancy(), is(Square.A1.toBitMask()));
+        assertThat(instance.getSide(BoardSide.BLACK).getOccupancy(), is(Square.H8.toBitMask()));
+        assertThat(instance.getOccupancy(), is(Square.A1.toBitMask() | Square.H8.toBitMask()));
+        instance.unsetPiece(Square.A1);
+        assertThat(instance.getSide(BoardSide.WHITE).getOccupancy(), is(0L));
+        assertThat(instance.getOccupancy(), is(Square.H8.toBitMask()));
+        instance.clear();
+        assertThat(instance.getOccupancy(), is(0L));
+        assertThat(instance.getSide(BoardSide.BLACK).getOccupancy(), is(0L));
+    }
+
     @Test
     public void testTurn() {
         BoardSide expResult = BoardSide.BLACK;
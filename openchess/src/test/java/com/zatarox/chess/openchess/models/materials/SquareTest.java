@@ -31,6 +31,13 @@ public class SquareTest {
         assertThat(Square.H8.getFileIndex(), is(File.H));
     }
 
+    @Test
+    public void testFromIndex() {
+        for (Square square : Square.values()) {
+            assertThat(Square.from(square.ordinal()), is(square));
+        }
+    }
+
     @Test
     public void testGetRankIndex() {
         assertThat(Square.A1.getRankIndex(), is(Rank._1));
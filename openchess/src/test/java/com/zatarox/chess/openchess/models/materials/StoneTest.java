@@ -49,4 +49,14 @@ public class StoneTest {
         assertThat(instance3.hashCode(), is(not(instance1.hashCode())));
     }
 
+    @Test
+    public void testValueOf() {
+        for (BoardSide side : BoardSide.values()) {
+            for (Piece piece : Piece.values()) {
+                assertSame(Stone.valueOf(piece, side), Stone.valueOf(piece, side));
+                assertThat(Stone.valueOf(piece, side), equalTo(new Stone(piece, side)));
+            }
+        }
+    }
+
 }
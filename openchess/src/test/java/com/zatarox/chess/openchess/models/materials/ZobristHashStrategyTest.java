@@ -15,6 +15,9 @@
  */
 package com.zatarox.chess.openchess.models.materials;
 
+import com.zatarox.chess.openchess.models.moves.MoveUndo;
+import com.zatarox.chess.openchess.models.moves.PackedMove;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
 import org.junit.Test;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -39,5 +42,44 @@ public class ZobristHashStrategyTest {
         instance.remove(stone, square);
         assertEquals(0L, instance.hashCode64());
     }
-   
+
+    private static long hash(String fen) {
+        return new ForsythEdwardsNotation(fen).create().getHashing().hashCode64();
+    }
+
+    @Test
+    public void testSharedKeys() {
+        final HashStrategy instance1 = new ZobristHashStrategy();
+        final HashStrategy instance2 = new ZobristHashStrategy();
+        instance1.add(new Stone(Piece.KING, BoardSide.BLACK), Square.E8);
+        instance2.add(new Stone(Piece.KING, BoardSide.BLACK), Square.E8);
+        assertEquals(instance1.hashCode64(), instance2.hashCode64());
+        assertEquals(hash("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"), hash("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+
+    @Test
+    public void testState() {
+        final long initial = hash("r3k2r/8/8/3pP3/8/8/8/R3K2R w KQkq - 0 1");
+        assertThat(hash("r3k2r/8/8/3pP3/8/8/8/R3K2R b KQkq - 0 1"), is(not(initial)));
+        assertThat(hash("r3k2r/8/8/3pP3/8/8/8/R3K2R w - - 0 1"), is(not(initial)));
+        assertThat(hash("r3k2r/8/8/3pP3/8/8/8/R3K2R w KQkq d6 0 1"), is(not(initial)));
+    }
+
+    @Test
+    public void testIncremental() throws Exception {
+        final ChessBoard board = new ForsythEdwardsNotation("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1").create();
+        final long initial = board.getHashing().hashCode64();
+        final MoveUndo undo = new MoveUndo();
+        final int castle = PackedMove.createCastle(Castle.SHORT, BoardSide.WHITE);
+        PackedMove.play(board, castle, undo);
+        board.setTurn(BoardSide.BLACK);
+        final ChessBoard expected = new ForsythEdwardsNotation("r3k2r/8/8/8/8/8/8/R4RK1 b - - 0 1").create();
+        expected.getSide(BoardSide.BLACK).getCastles().add(Castle.SHORT);
+        expected.getSide(BoardSide.BLACK).getCastles().add(Castle.LONG);
+        assertThat(board.getHashing().hashCode64(), is(expected.getHashing().hashCode64()));
+        board.setTurn(BoardSide.WHITE);
+        PackedMove.unplay(board, castle, undo);
+        assertThat(board.getHashing().hashCode64(), is(initial));
+    }
+
 }
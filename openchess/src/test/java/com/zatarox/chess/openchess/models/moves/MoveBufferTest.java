@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.models.moves;
+
+import com.zatarox.chess.openchess.models.materials.Square;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+public class MoveBufferTest {
+
+    private MoveBuffer buffer;
+
+    @Before
+    public void setUp() {
+        buffer = new MoveBuffer();
+        buffer.add(PackedMove.createNormal(Square.A2, Square.A3), 10);
+        buffer.add(PackedMove.createNormal(Square.B2, Square.B3), 30);
+        buffer.add(PackedMove.createNormal(Square.C2, Square.C3), 20);
+    }
+
+    @Test
+    public void selectBestFirst() {
+        assertThat(buffer.size(), is(3));
+        assertTrue(buffer.hasNext());
+        assertThat(buffer.next(), is(PackedMove.createNormal(Square.B2, Square.B3)));
+        assertThat(buffer.next(), is(PackedMove.createNormal(Square.C2, Square.C3)));
+        assertThat(buffer.next(), is(PackedMove.createNormal(Square.A2, Square.A3)));
+        assertFalse(buffer.hasNext());
+    }
+
+    @Test
+    public void rewind() {
+        buffer.next();
+        buffer.next();
+        buffer.rewind();
+        assertThat(buffer.next(), is(PackedMove.createNormal(Square.B2, Square.B3)));
+        assertThat(buffer.getScore(0), is(30));
+    }
+
+    @Test
+    public void clear() {
+        buffer.next();
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertFalse(buffer.hasNext());
+        buffer.add(PackedMove.createNormal(Square.D2, Square.D3), 0);
+        assertThat(buffer.get(0), is(PackedMove.createNormal(Square.D2, Square.D3)));
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.openchess.models.moves;
+
+import com.zatarox.chess.openchess.models.materials.*;
+import com.zatarox.chess.openchess.models.moves.exceptions.IllegalMoveException;
+import com.zatarox.chess.openchess.models.moves.exceptions.SelfMateMoveException;
+import com.zatarox.chess.openchess.models.notations.ForsythEdwardsNotation;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+public class PackedMoveTest {
+
+    private final MoveUndo undo = new MoveUndo();
+
+    private static ChessBoard create(String fen) {
+        return new ForsythEdwardsNotation(fen).create();
+    }
+
+    @Test
+    public void codec() {
+        final int move = PackedMove.createPromotion(Square.E7, Square.D8, Piece.KNIGHT, Piece.KNIGHT);
+        assertThat(PackedMove.getFrom(move), is(Square.E7));
+        assertThat(PackedMove.getTo(move), is(Square.D8));
+        assertThat(PackedMove.getKind(move), is(PackedMove.PROMOTION));
+        assertThat(PackedMove.getPromotion(move), is(Piece.KNIGHT));
+        assertThat(PackedMove.getCaptured(move), is(Piece.KNIGHT));
+        assertTrue(PackedMove.isCapture(move));
+        final int normal = PackedMove.createNormal(Square.H8, Square.A1);
+        assertThat(PackedMove.getFrom(normal), is(Square.H8));
+        assertThat(PackedMove.getTo(normal), is(Square.A1));
+        assertNull(PackedMove.getPromotion(normal));
+        assertFalse(PackedMove.isCapture(normal));
+    }
+
+    @Test
+    public void valueOf() {
+        final Move capture = MovesFactorySingleton.getInstance().createCapture(Square.H4, Square.H7, new Stone(Piece.PAWN, BoardSide.BLACK));
+        assertThat(PackedMove.valueOf(capture), is(PackedMove.createCapture(Square.H4, Square.H7, Piece.PAWN)));
+        final Move castle = MovesFactorySingleton.getInstance().createCastle(Castle.LONG, BoardSide.BLACK);
+        assertThat(PackedMove.valueOf(castle), is(PackedMove.createCastle(Castle.LONG, BoardSide.BLACK)));
+    }
+
+    @Test(expected = IllegalMoveException.class)
+    public void noPieceToMove() throws IllegalMoveException, SelfMateMoveException {
+        final ChessBoard board = create("4k3/1p4pp/2p5/8/q3r2Q/3p3P/1P4PK/4R3 b - - 0 1");
+        PackedMove.play(board, PackedMove.createNormal(Square.A2, Square.A3), undo);
+    }
+
+    @Test
+    public void playCapture() throws IllegalMoveException, SelfMateMoveException {
+        final ChessBoard board = create("4k3/1p4pp/2p5/8/q3r2Q/3p3P/1P4PK/4R3 b - - 0 1");
+        final long hash = board.getHashing().hashCode64();
+        final int move = PackedMove.createCapture(Square.H4, Square.H7, Piece.PAWN);
+        PackedMove.play(board, move, undo);
+        assertThat(board.getStone(Square.H7), equalTo(new Stone(Piece.QUEEN, BoardSide.WHITE)));
+        assertThat(undo.getCaptured(), is(Piece.PAWN));
+        PackedMove.unplay(board, move, undo);
+        assertThat(board.getStone(Square.H4), equalTo(new Stone(Piece.QUEEN, BoardSide.WHITE)));
+        assertThat(board.getStone(Square.H7), equalTo(new Stone(Piece.PAWN, BoardSide.BLACK)));
+        assertThat(board.getHashing().hashCode64(), is(hash));
+    }
+
+    @Test
+    public void playPinnedRook() throws IllegalMoveException {
+        final ChessBoard board = create("4k3/1p4pp/2p5/8/q3r2Q/3p3P/1P4PK/4R3 b - - 0 1");
+        final long hash = board.getHashing().hashCode64();
+        try {
+            PackedMove.play(board, PackedMove.createCapture(Square.E4, Square.H4, Piece.QUEEN), undo);
+            fail();
+        } catch (SelfMateMoveException ex) {
+            assertThat(board.getStone(Square.E4), equalTo(new Stone(Piece.ROOK, BoardSide.BLACK)));
+            assertThat(board.getStone(Square.H4), equalTo(new Stone(Piece.QUEEN, BoardSide.WHITE)));
+            assertThat(board.getHashing().hashCode64(), is(hash));
+        }
+    }
+
+    @Test
+    public void playCharge() throws IllegalMoveException, SelfMateMoveException {
+        final ChessBoard board = create("4k3/1p4pp/2p5/8/q3r2Q/3p3P/1P4PK/4R3 w - - 0 1");
+        final int move = PackedMove.createCharge(Square.B2, Square.B4);
+        PackedMove.play(board, move, undo);
+        assertThat(board.getSide(BoardSide.WHITE).getEnpassant(), is(Square.B3));
+        PackedMove.unplay(board, move, undo);
+        assertFalse(board.getSide(BoardSide.WHITE).isEnpassant());
+        assertThat(board.getStone(Square.B2), equalTo(new Stone(Piece.PAWN, BoardSide.WHITE)));
+    }
+
+    @Test
+    public void playEnpassant() throws IllegalMoveException, SelfMateMoveException {
+        final ChessBoard board = create("8/6bb/8/R7/2pPppk1/4P3/P7/K7 b - d3 0 1");
+        final long hash = board.getHashing().hashCode64();
+        final int move = PackedMove.createEnpassant(Square.C4, Square.D3);
+        PackedMove.play(board, move, undo);
+        assertThat(board.getStone(Square.D3), equalTo(new Stone(Piece.PAWN, BoardSide.BLACK)));
+        assertFalse(board.isOccuped(Square.D4));
+        assertFalse(board.getSide(BoardSide.BLACK).isEnpassant());
+        PackedMove.unplay(board, move, undo);
+        assertThat(board.getStone(Square.C4), equalTo(new Stone(Piece.PAWN, BoardSide.BLACK)));
+        assertThat(board.getStone(Square.D4), equalTo(new Stone(Piece.PAWN, BoardSide.WHITE)));
+        assertThat(board.getSide(BoardSide.BLACK).getEnpassant(), is(Square.D3));
+        assertThat(board.getHashing().hashCode64(), is(hash));
+    }
+
+    @Test
+    public void playPromoteWithCapture() throws IllegalMoveException, SelfMateMoveException {
+        final ChessBoard board = create("3n2nr/P3Pqpp/2k5/8/8/8/2B3PP/6K1 w - - 0 74");
+        final int move = PackedMove.createPromotion(Square.E7, Square.D8, Piece.KNIGHT, Piece.KNIGHT);
+        PackedMove.play(board, move, undo);
+        assertThat(board.getStone(Square.D8), equalTo(new Stone(Piece.KNIGHT, BoardSide.WHITE)));
+        assertFalse(board.isOccuped(Square.E7));
+        PackedMove.unplay(board, move, undo);
+        assertThat(board.getStone(Square.D8), equalTo(new Stone(Piece.KNIGHT, BoardSide.BLACK)));
+        assertThat(board.getStone(Square.E7), equalTo(new Stone(Piece.PAWN, BoardSide.WHITE)));
+    }
+
+    @Test
+    public void playCastle() throws IllegalMoveException, SelfMateMoveException {
+        final ChessBoard board = create("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1");
+        final long hash = board.getHashing().hashCode64();
+        final int move = PackedMove.createCastle(Castle.LONG, BoardSide.BLACK);
+        PackedMove.play(board, move, undo);
+        assertThat(board.getStone(Square.C8), equalTo(new Stone(Piece.KING, BoardSide.BLACK)));
+        assertThat(board.getStone(Square.D8), equalTo(new Stone(Piece.ROOK, BoardSide.BLACK)));
+        assertTrue(board.getSide(BoardSide.BLACK).getCastles().isEmpty());
+        PackedMove.unplay(board, move, undo);
+        assertThat(board.getStone(Square.E8), equalTo(new Stone(Piece.KING, BoardSide.BLACK)));
+        assertThat(board.getStone(Square.A8), equalTo(new Stone(Piece.ROOK, BoardSide.BLACK)));
+        assertThat(board.getSide(BoardSide.BLACK).getCastles().size(), is(2));
+        assertThat(board.getHashing().hashCode64(), is(hash));
+    }
+
+}
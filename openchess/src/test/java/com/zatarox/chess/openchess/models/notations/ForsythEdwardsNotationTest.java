@@ -142,7 +142,9 @@ public class ForsythEdwardsNotationTest {
     public void testEmptyChessboard() {
         final Notation fen = new ForsythEdwardsNotation("8/8/8/8/8/8/8/8 b - - 0 2");
         final ChessBoard board = fen.create();
-        assertThat(board.getHashing().hashCode64(), is(0L));
+        // Only the side to move is hashed
+        assertThat(board.getHashing().hashCode64(), is(not(0L)));
+        assertThat(new ForsythEdwardsNotation("8/8/8/8/8/8/8/8 w - - 0 2").create().getHashing().hashCode64(), is(0L));
         assertTrue(board.isEmpty());
         assertThat(board.getTurn(), is(BoardSide.BLACK));
         assertThat(board.getHalfmove(), is((short) 0));
@@ -19,51 +19,125 @@ import com.fluxchess.jcpi.AbstractEngine;
 import com.fluxchess.jcpi.commands.*;
 import com.fluxchess.jcpi.models.GenericColor;
 import com.fluxchess.jcpi.models.GenericMove;
-import com.fluxchess.jcpi.models.IllegalNotationException;
+import com.fluxchess.jcpi.options.ButtonOption;
+import com.fluxchess.jcpi.options.CheckboxOption;
+import com.fluxchess.jcpi.options.ComboboxOption;
+import com.fluxchess.jcpi.options.SpinnerOption;
+import com.zatarox.chess.skychess.engine.Benchmark;
 import com.zatarox.chess.skychess.engine.Board;
 import com.zatarox.chess.skychess.engine.Board.Side;
 import com.zatarox.chess.skychess.engine.ChessEngine;
 import com.zatarox.chess.skychess.engine.DefaultChessEngine;
-import com.zatarox.chess.skychess.tables.RepetitionTable;
+import com.zatarox.chess.skychess.engine.SearchListener;
+import com.zatarox.chess.skychess.engine.Statistics;
+import com.zatarox.chess.skychess.tables.EvaluationCache;
 import com.zatarox.chess.skychess.tables.TranspositionTable;
+import chesspresso.move.Move;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
-import chesspresso.move.Move;
 
 /**
  * This is the main class of SkyChess which is used to connect to a client
  * chessboard program througth UCI protocol.
  */
-public class MainApp extends AbstractEngine {
+public class MainApp extends AbstractEngine implements SearchListener {
+
+    /**
+     * Non UCI command, also accepted as first program argument, followed by
+     * an optional depth.
+     */
+    public static final String COMMAND_BENCH = "bench";
 
     private final Board game = new Board();
     private final ChessEngine engine = new DefaultChessEngine();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private Future<?> search = null;
+
+    private MainApp(BufferedReader input, PrintStream output) {
+        super(input, output);
+    }
 
     public static void main(String args[]) throws IOException {
-        MainApp main = new MainApp();
+        if (args.length > 0 && COMMAND_BENCH.equals(args[0])) {
+            Benchmark.bench(args.length > 1 ? Integer.parseInt(args[1]) : Benchmark.BENCH_DEPTH, System.out);
+            return;
+        }
+        final CommandReader input = new CommandReader(new InputStreamReader(System.in), System.out);
+        MainApp main = new MainApp(input, System.out);
+        input.engine = main;
         main.run();
     }
 
     @Override
     protected void quit() {
-
+        waitSearch();
+        worker.shutdown();
+        engine.shutdown();
     }
 
     @Override
     public void receive(EngineInitializeRequestCommand command) {
         engine.setBoard(game);
+        engine.setListener(this);
         ProtocolInitializeAnswerCommand request = new ProtocolInitializeAnswerCommand("SkyChess", "Guillaume Chauvet");
-        //request.addOption(new SpinnerOption(Settings.OPTION_HASH, Settings.DEFAULT_HASH_SIZE, 1, 512));
+        request.addOption(new SpinnerOption(Settings.OPTION_HASH, Settings.getInstance().getTranspositionTableSize(), 1, Settings.MAX_HASH_SIZE));
+        request.addOption(new ButtonOption(Settings.OPTION_CLEAR_HASH));
+        request.addOption(new SpinnerOption(Settings.OPTION_EVALUATION_CACHE, Settings.getInstance().getEvaluationCacheSize(), 1, Settings.MAX_EVALUATION_CACHE_SIZE));
+        request.addOption(new SpinnerOption(Settings.OPTION_THREADS, Settings.getInstance().getThreads(), 1, Settings.MAX_THREADS));
+        request.addOption(new CheckboxOption(Settings.OPTION_NULL_MOVE, Settings.getInstance().isNullMove()));
+        request.addOption(new CheckboxOption(Settings.OPTION_LATE_MOVE_REDUCTIONS, Settings.getInstance().isLateMoveReductions()));
+        request.addOption(new CheckboxOption(Settings.OPTION_FUTILITY, Settings.getInstance().isFutility()));
+        request.addOption(new CheckboxOption(Settings.OPTION_REVERSE_FUTILITY, Settings.getInstance().isReverseFutility()));
+        request.addOption(new ComboboxOption(Settings.OPTION_SEARCH, Settings.getInstance().getSearch(), new String[]{Settings.SEARCH_ASPIRATION, Settings.SEARCH_MTDF}));
         getProtocol().send(request);
     }
 
     @Override
     public void receive(EngineSetOptionCommand command) {
-        /*switch (command.name) {
-         case Settings.OPTION_HASH:
-         Settings.getInstance().setTranspositionTableSize(Integer.valueOf(command.value));
-         break;
-         }*/
+        try {
+            switch (command.name) {
+                case Settings.OPTION_HASH:
+                    Settings.getInstance().setTranspositionTableSize(Integer.valueOf(command.value));
+                    break;
+                case Settings.OPTION_CLEAR_HASH:
+                    TranspositionTable.getInstance().clear();
+                    EvaluationCache.getInstance().clear();
+                    break;
+                case Settings.OPTION_EVALUATION_CACHE:
+                    Settings.getInstance().setEvaluationCacheSize(Integer.valueOf(command.value));
+                    break;
+                case Settings.OPTION_THREADS:
+                    Settings.getInstance().setThreads(Integer.valueOf(command.value));
+                    break;
+                case Settings.OPTION_NULL_MOVE:
+                    Settings.getInstance().setNullMove(Boolean.parseBoolean(command.value));
+                    break;
+                case Settings.OPTION_LATE_MOVE_REDUCTIONS:
+                    Settings.getInstance().setLateMoveReductions(Boolean.parseBoolean(command.value));
+                    break;
+                case Settings.OPTION_FUTILITY:
+                    Settings.getInstance().setFutility(Boolean.parseBoolean(command.value));
+                    break;
+                case Settings.OPTION_REVERSE_FUTILITY:
+                    Settings.getInstance().setReverseFutility(Boolean.parseBoolean(command.value));
+                    break;
+                case Settings.OPTION_SEARCH:
+                    Settings.getInstance().setSearch(command.value);
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            Notification.getInstance().getLogger().log(Level.WARNING, "Invalid value for option " + command.name, e);
+        }
     }
 
     @Override
@@ -77,33 +151,32 @@ public class MainApp extends AbstractEngine {
 
     @Override
     public void receive(EngineNewGameCommand command) {
+        waitSearch();
         game.reset();
-        RepetitionTable.getInstance().clear();
         TranspositionTable.getInstance().clear();
+        EvaluationCache.getInstance().clear();
     }
 
     @Override
     public void receive(EngineAnalyzeCommand command) {
+        waitSearch();
         game.reset(command.board.toString());
         game.play(command.moves);
     }
 
     @Override
     public void receive(EngineStartCalculatingCommand command) {
-        int wtime = command.getClock(GenericColor.WHITE) == null ? 0 : command.getClock(GenericColor.WHITE).intValue();
-        int btime = command.getClock(GenericColor.BLACK) == null ? 0 : command.getClock(GenericColor.BLACK).intValue();
-        int winc = command.getClockIncrement(GenericColor.WHITE) == null ? 0 : command.getClockIncrement(GenericColor.WHITE).intValue();
-        int binc = command.getClockIncrement(GenericColor.BLACK) == null ? 0 : command.getClockIncrement(GenericColor.BLACK).intValue();
+        final int wtime = command.getClock(GenericColor.WHITE) == null ? 0 : command.getClock(GenericColor.WHITE).intValue();
+        final int btime = command.getClock(GenericColor.BLACK) == null ? 0 : command.getClock(GenericColor.BLACK).intValue();
+        final int winc = command.getClockIncrement(GenericColor.WHITE) == null ? 0 : command.getClockIncrement(GenericColor.WHITE).intValue();
+        final int binc = command.getClockIncrement(GenericColor.BLACK) == null ? 0 : command.getClockIncrement(GenericColor.BLACK).intValue();
         final boolean ponder = command.getPonder();
         final int searchDepth = command.getDepth() == null ? 0 : command.getDepth();
         final int movetime = command.getMoveTime() == null ? 0 : command.getMoveTime().intValue();
+        final int movestogo = command.getMovesToGo() == null ? 0 : command.getMovesToGo();
 
-        if (command.getInfinite()) {
-            wtime = 99990000;
-            btime = 99990000;
-            winc = 0;
-            binc = 0;
-        }
+        // The previous search may still be playing its move on the board
+        waitSearch();
 
         // We now have the times so set the engine's time and increment
         // to whatever side he is playing (the side to move on the
@@ -118,22 +191,103 @@ public class MainApp extends AbstractEngine {
             engineInc = binc;
         }
 
-        try {
-            engine.setDepth((short) searchDepth);
-            engine.setEngineTime(engineTime);
-            engine.setEngineIncrement(engineInc);
-            engine.setMoveTime(movetime);
-            engine.setPonder(ponder);
-
-            Short best = engine.call();
-            game.play(best); // Make best move on the board
-            RepetitionTable.getInstance().recordRep(game);
-            getProtocol().send(new ProtocolBestMoveCommand(new GenericMove(Move.getString(best)), null));
-        } catch (IllegalNotationException e) {
-            Notification.getInstance().getLogger().log(Level.SEVERE, "Error while searching", e);
+        engine.setDepth((short) searchDepth);
+        engine.setEngineTime(engineTime);
+        engine.setEngineIncrement(engineInc);
+        engine.setMoveTime(movetime);
+        engine.setMovesToGo(movestogo);
+        engine.setPonder(ponder);
+        engine.setInfinite(command.getInfinite());
+        engine.prepare();
+
+        search = worker.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                // Null when the root is mate or stalemate, or the search failed
+                GenericMove result = null;
+                try {
+                    final short best = engine.call();
+                    if (best != Move.NO_MOVE) {
+                        result = Board.toGenericMove(best);
+                        game.play(best); // Make best move on the board
+                    }
+                    final ProtocolInformationCommand info = new ProtocolInformationCommand();
+                    info.setHash(TranspositionTable.getInstance().getUsage());
+                    info.setString(engine.getStatistics().toString());
+                    getProtocol().send(info);
+                } catch (RuntimeException e) {
+                    Notification.getInstance().getLogger().log(Level.SEVERE, "Error while searching", e);
+                }
+                // The GUI waits for a best move whatever happened
+                getProtocol().send(new ProtocolBestMoveCommand(result, null));
+            }
+        });
+    }
+
+    /**
+     * Runs the benchmark once the current search, if any, is stopped.
+     *
+     * @param depth Depth to reach on each position
+     * @param out Receives the benchmark report
+     */
+    private void bench(int depth, PrintStream out) {
+        waitSearch();
+        Benchmark.bench(depth, out);
+        TranspositionTable.getInstance().clear();
+        EvaluationCache.getInstance().clear();
+    }
+
+    /**
+     * Stops the running search, if any, and waits for its best move.
+     */
+    private void waitSearch() {
+        if (search != null) {
+            engine.stop();
+            try {
+                search.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Notification.getInstance().getLogger().log(Level.SEVERE, "Error while searching", e);
+            }
+            search = null;
         }
     }
 
+    @Override
+    public void iterationDone(int depth, int score, Statistics statistics, long time, short[] pv) {
+        final ProtocolInformationCommand info = new ProtocolInformationCommand();
+        info.setDepth(depth);
+        info.setMaxDepth(statistics.getSelectiveDepth());
+        if (score >= DefaultChessEngine.MATE_BOUND) {
+            info.setMate((DefaultChessEngine.MATE - score + 1) / 2);
+        } else if (score <= -DefaultChessEngine.MATE_BOUND) {
+            info.setMate(-(DefaultChessEngine.MATE + score) / 2);
+        } else {
+            info.setCentipawns(score);
+        }
+        info.setNodes(statistics.getNodes());
+        info.setTime(time);
+        info.setNps(statistics.getNodes() * 1000 / Math.max(1, time));
+        final List<GenericMove> moves = new ArrayList<>(pv.length);
+        for (final short move : pv) {
+            moves.add(Board.toGenericMove(move));
+        }
+        info.setMoveList(moves);
+        getProtocol().send(info);
+    }
+
+    @Override
+    public void progress(Statistics statistics, long time) {
+        final ProtocolInformationCommand info = new ProtocolInformationCommand();
+        info.setNodes(statistics.getNodes());
+        info.setTime(time);
+        info.setNps(statistics.getNodes() * 1000 / Math.max(1, time));
+        info.setHash(TranspositionTable.getInstance().getUsage());
+        getProtocol().send(info);
+    }
+
     @Override
     public void receive(EngineStopCalculatingCommand command) {
         engine.stop();
@@ -141,6 +295,40 @@ public class MainApp extends AbstractEngine {
 
     @Override
     public void receive(EnginePonderHitCommand command) {
-        engine.setPonder(true);
+        engine.setPonder(false);
     }
+
+    /**
+     * Handles the commands unknown to jcpi before the UCI protocol reads the
+     * input.
+     */
+    private static final class CommandReader extends BufferedReader {
+
+        private final PrintStream output;
+        private MainApp engine;
+
+        CommandReader(Reader input, PrintStream output) {
+            super(input);
+            this.output = output;
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            String line = super.readLine();
+            while (line != null && line.trim().startsWith(COMMAND_BENCH)) {
+                final String[] tokens = line.trim().split("\\s+");
+                if (!COMMAND_BENCH.equals(tokens[0])) {
+                    break;
+                }
+                try {
+                    engine.bench(tokens.length > 1 ? Integer.parseInt(tokens[1]) : Benchmark.BENCH_DEPTH, output);
+                } catch (NumberFormatException e) {
+                    Notification.getInstance().getLogger().log(Level.WARNING, "Invalid depth for " + COMMAND_BENCH, e);
+                }
+                line = super.readLine();
+            }
+            return line;
+        }
+    }
+
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess;
+
+import com.zatarox.chess.skychess.tables.EvaluationCache;
+import com.zatarox.chess.skychess.tables.TranspositionTable;
+
+/**
+ * Engine settings exposed as UCI options.
+ */
+public final class Settings {
+
+    public static final String OPTION_HASH = "Hash";
+    public static final String OPTION_CLEAR_HASH = "Clear Hash";
+    public static final String OPTION_EVALUATION_CACHE = "Eval Cache";
+    public static final String OPTION_THREADS = "Threads";
+    public static final String OPTION_NULL_MOVE = "Null Move";
+    public static final String OPTION_LATE_MOVE_REDUCTIONS = "Late Move Reductions";
+    public static final String OPTION_FUTILITY = "Futility Pruning";
+    public static final String OPTION_REVERSE_FUTILITY = "Reverse Futility Pruning";
+    public static final String OPTION_SEARCH = "Search";
+
+    public static final String SEARCH_ASPIRATION = "Aspiration";
+    public static final String SEARCH_MTDF = "MTD(f)";
+
+    public static final int DEFAULT_HASH_SIZE = TranspositionTable.DEFAULT_SIZE;
+    public static final int MAX_HASH_SIZE = 512;
+    public static final int DEFAULT_EVALUATION_CACHE_SIZE = EvaluationCache.DEFAULT_SIZE;
+    public static final int MAX_EVALUATION_CACHE_SIZE = 256;
+    public static final int MAX_THREADS = 256;
+
+    static private Settings INSTANCE = null;
+    private int transpositionTableSize = DEFAULT_HASH_SIZE;
+    private int evaluationCacheSize = DEFAULT_EVALUATION_CACHE_SIZE;
+    private int threads = 1;
+    private boolean nullMove = true;
+    private boolean lateMoveReductions = true;
+    private boolean futility = true;
+    private boolean reverseFutility = true;
+    private String search = SEARCH_ASPIRATION;
+
+    private Settings() {
+    }
+
+    public int getTranspositionTableSize() {
+        return transpositionTableSize;
+    }
+
+    /**
+     * @param megabytes New transposition table size, the table is cleared.
+     */
+    public void setTranspositionTableSize(int megabytes) {
+        megabytes = Math.max(1, Math.min(megabytes, MAX_HASH_SIZE));
+        if (megabytes != transpositionTableSize) {
+            transpositionTableSize = megabytes;
+            TranspositionTable.getInstance().resize(megabytes);
+        }
+    }
+
+    public int getEvaluationCacheSize() {
+        return evaluationCacheSize;
+    }
+
+    /**
+     * @param megabytes New evaluation cache size, the cache is cleared.
+     */
+    public void setEvaluationCacheSize(int megabytes) {
+        megabytes = Math.max(1, Math.min(megabytes, MAX_EVALUATION_CACHE_SIZE));
+        if (megabytes != evaluationCacheSize) {
+            evaluationCacheSize = megabytes;
+            EvaluationCache.getInstance().resize(megabytes);
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads Number of search threads, the main one included.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, Math.min(threads, MAX_THREADS));
+    }
+
+    public boolean isNullMove() {
+        return nullMove;
+    }
+
+    public void setNullMove(boolean nullMove) {
+        this.nullMove = nullMove;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public boolean isFutility() {
+        return futility;
+    }
+
+    public void setFutility(boolean futility) {
+        this.futility = futility;
+    }
+
+    public boolean isReverseFutility() {
+        return reverseFutility;
+    }
+
+    public void setReverseFutility(boolean reverseFutility) {
+        this.reverseFutility = reverseFutility;
+    }
+
+    /**
+     * @return Root driver of the iterative deepening
+     */
+    public String getSearch() {
+        return search;
+    }
+
+    /**
+     * @param search {@link #SEARCH_ASPIRATION} or {@link #SEARCH_MTDF}
+     */
+    public void setSearch(String search) {
+        if (!SEARCH_ASPIRATION.equals(search) && !SEARCH_MTDF.equals(search)) {
+            throw new IllegalArgumentException(search);
+        }
+        this.search = search;
+    }
+
+    public static Settings getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new Settings();
+        }
+        return INSTANCE;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import chesspresso.Chess;
+
+/**
+ * Attack bitboards, bit i standing for the chesspresso square i (A1 = 0).
+ * Sliders use ray masks cut at the first blocker.
+ */
+final class Attacks {
+
+    private static final long[] KNIGHT = new long[Chess.NUM_OF_SQUARES];
+    private static final long[] KING = new long[Chess.NUM_OF_SQUARES];
+    private static final long[][] PAWN = new long[2][Chess.NUM_OF_SQUARES];
+    /**
+     * Directions growing the square index come first: E, NE, N, NW.
+     */
+    private static final int[] COLS = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] ROWS = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final long[][] RAYS = new long[COLS.length][Chess.NUM_OF_SQUARES];
+
+    static {
+        final int[] knightCols = {1, 2, 2, 1, -1, -2, -2, -1};
+        final int[] knightRows = {2, 1, -1, -2, -2, -1, 1, 2};
+        for (int sqi = 0; sqi < Chess.NUM_OF_SQUARES; sqi++) {
+            final int col = Chess.sqiToCol(sqi);
+            final int row = Chess.sqiToRow(sqi);
+            for (int i = 0; i < 8; i++) {
+                KNIGHT[sqi] |= bit(col + knightCols[i], row + knightRows[i]);
+                KING[sqi] |= bit(col + COLS[i], row + ROWS[i]);
+                for (int c = col + COLS[i], r = row + ROWS[i]; bit(c, r) != 0; c += COLS[i], r += ROWS[i]) {
+                    RAYS[i][sqi] |= bit(c, r);
+                }
+            }
+            PAWN[Chess.WHITE][sqi] = bit(col - 1, row + 1) | bit(col + 1, row + 1);
+            PAWN[Chess.BLACK][sqi] = bit(col - 1, row - 1) | bit(col + 1, row - 1);
+        }
+    }
+
+    private Attacks() {
+    }
+
+    private static long bit(int col, int row) {
+        return col >= 0 && col < 8 && row >= 0 && row < 8 ? 1L << Chess.coorToSqi(col, row) : 0L;
+    }
+
+    static long knight(int sqi) {
+        return KNIGHT[sqi];
+    }
+
+    static long king(int sqi) {
+        return KING[sqi];
+    }
+
+    /**
+     * @param color Chesspresso color of the pawn
+     */
+    static long pawn(int color, int sqi) {
+        return PAWN[color][sqi];
+    }
+
+    static long bishop(int sqi, long occupied) {
+        return ray(1, sqi, occupied) | ray(3, sqi, occupied) | ray(5, sqi, occupied) | ray(7, sqi, occupied);
+    }
+
+    static long rook(int sqi, long occupied) {
+        return ray(0, sqi, occupied) | ray(2, sqi, occupied) | ray(4, sqi, occupied) | ray(6, sqi, occupied);
+    }
+
+    static long queen(int sqi, long occupied) {
+        return bishop(sqi, occupied) | rook(sqi, occupied);
+    }
+
+    private static long ray(int direction, int sqi, long occupied) {
+        long result = RAYS[direction][sqi];
+        final long blockers = result & occupied;
+        if (blockers != 0) {
+            final int blocker = direction < 4 ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+            result ^= RAYS[direction][blocker];
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import com.zatarox.chess.skychess.Settings;
+import com.zatarox.chess.skychess.tables.EvaluationCache;
+import com.zatarox.chess.skychess.tables.TranspositionTable;
+import java.io.PrintStream;
+
+/**
+ * Measures the search on a fixed set of positions: time to reach a given
+ * depth and nodes per second, for an increasing number of threads.
+ */
+public final class Benchmark {
+
+    public static final int DEFAULT_DEPTH = 5;
+    /**
+     * Depth of the "bench" command, its node count fingerprints the search.
+     */
+    public static final int BENCH_DEPTH = 8;
+
+    private static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/3K4/2p5/p2b2r1/5k2/8/8/1q6 b - - 1 67",
+        "rnbqkb1r/ppppp1pp/7n/4Pp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+        "8/7p/p5pb/4k3/P1pPn3/8/P5PP/1rB2RK1 b - d3 0 28",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    };
+
+    private long nodes;
+    private long time;
+
+    private Benchmark() {
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return Wall clock time in ms spent to reach the depth on all positions
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, time);
+    }
+
+    /**
+     * Searches every position to the given depth, starting from empty
+     * transposition table and evaluation cache, with the current number of
+     * threads.
+     *
+     * @param depth Depth to reach on each position
+     * @param out Receives one line per position
+     * @return Totals over all positions
+     */
+    public static Benchmark run(int depth, PrintStream out) {
+        final Benchmark result = new Benchmark();
+        final ChessEngine engine = new DefaultChessEngine();
+        final Board board = new Board();
+        engine.setBoard(board);
+        engine.setDepth((short) depth);
+        try {
+            for (final String fen : POSITIONS) {
+                board.reset(fen);
+                TranspositionTable.getInstance().clear();
+                EvaluationCache.getInstance().clear();
+                engine.prepare();
+                final long start = System.currentTimeMillis();
+                final short best = engine.call();
+                final long elapsed = System.currentTimeMillis() - start;
+                final long count = engine.getStatistics().getNodes();
+                out.println(fen + ": " + Board.toGenericMove(best) + ", " + count + " nodes in " + elapsed + " ms");
+                result.nodes += count;
+                result.time += elapsed;
+            }
+        } finally {
+            engine.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Runs the benchmark on a single thread, so that the node count only
+     * depends on the search and the evaluation, then prints the totals.
+     *
+     * @param depth Depth to reach on each position
+     * @param out Receives one line per position and the totals
+     * @return Totals over all positions
+     */
+    public static Benchmark bench(int depth, PrintStream out) {
+        final Settings settings = Settings.getInstance();
+        final int threads = settings.getThreads();
+        settings.setThreads(1);
+        try {
+            final Benchmark result = run(depth, out);
+            out.println("Nodes searched: " + result.getNodes());
+            out.println("Time (ms): " + result.getTime());
+            out.println("Nodes/second: " + result.getNodesPerSecond());
+            return result;
+        } finally {
+            settings.setThreads(threads);
+        }
+    }
+
+    /**
+     * Runs the benchmark with 1, 2, 4... threads up to the number of cores.
+     *
+     * @param args Optional depth, maximum number of threads and search driver
+     */
+    public static void main(String[] args) {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        final int cores = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        if (args.length > 2) {
+            Settings.getInstance().setSearch(args[2]);
+        }
+        long reference = 0;
+        for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(2 * threads, cores) : threads + 1) {
+            Settings.getInstance().setThreads(threads);
+            final Benchmark result = run(depth, System.out);
+            if (reference == 0) {
+                reference = Math.max(1, result.getTime());
+            }
+            System.out.println("Threads " + threads + ": " + result.getNodes() + " nodes, "
+                    + result.getTime() + " ms, " + result.getNodesPerSecond() + " nps, time to depth x"
+                    + String.format("%.2f", (double) reference / Math.max(1, result.getTime())));
+        }
+    }
+
+}
@@ -16,11 +16,15 @@
 package com.zatarox.chess.skychess.engine;
 
 import com.fluxchess.jcpi.models.GenericMove;
+import com.fluxchess.jcpi.models.IllegalNotationException;
 import com.zatarox.chess.skychess.tables.RepetitionTable;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import chesspresso.Chess;
 import chesspresso.move.IllegalMoveException;
+import chesspresso.move.Move;
 import chesspresso.position.Position;
 
 public final class Board implements Serializable {
@@ -31,19 +35,141 @@ public final class Board implements Serializable {
         BLACK
     };
 
+    /**
+     * Zobrist keys of the pawns, indexed by color and square.
+     */
+    private static final long[][] PAWN_KEYS = new long[2][Chess.NUM_OF_SQUARES];
+
+    static {
+        final Random random = new Random(0x5C7C4E55L);
+        for (final long[] keys : PAWN_KEYS) {
+            for (int sqi = 0; sqi < keys.length; sqi++) {
+                keys[sqi] = random.nextLong();
+            }
+        }
+    }
+
     Position game = new Position();
-    private Evaluator evaluator = new DefaultEvaluator();
+    private Evaluator evaluator;
+    private final RepetitionTable repetitions = new RepetitionTable();
+    /**
+     * Bitboards indexed by stone - MIN_STONE, kept in sync with the position.
+     */
+    private final long[] bitboards = new long[Chess.MAX_STONE - Chess.MIN_STONE + 1];
+    private final long[] occupancy = new long[2];
+    private long pawnKey;
+    /**
+     * Material and piece-square scores from white point of view.
+     */
+    private int middleGame;
+    private int endGame;
+    private int phase;
+
+    public Board() {
+        this(new TaperedEvaluator());
+    }
+
+    /**
+     * @param evaluator Shared with the copies, which must not pay for a new
+     * pawn table
+     */
+    private Board(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
 
     public void reset() {
         game.set(Position.createInitialPosition());
+        initialize();
     }
 
     public void reset(String fen) {
         game.set(new Position(fen));
+        initialize();
+    }
+
+    private void initialize() {
+        repetitions.clear();
+        repetitions.push(hashCode64());
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(occupancy, 0L);
+        pawnKey = 0L;
+        middleGame = endGame = phase = 0;
+        for (int sqi = 0; sqi < Chess.NUM_OF_SQUARES; sqi++) {
+            final int stone = game.getStone(sqi);
+            if (stone != Chess.NO_STONE) {
+                toggle(stone, sqi, 1);
+            }
+        }
+    }
+
+    /**
+     * Adds or removes a stone from the incremental state.
+     *
+     * @param sign 1 to add the stone, -1 to remove it
+     */
+    private void toggle(int stone, int sqi, int sign) {
+        final long bit = 1L << sqi;
+        final int piece = Chess.stoneToPiece(stone);
+        final int color = Chess.stoneToColor(stone);
+        bitboards[stone - Chess.MIN_STONE] ^= bit;
+        occupancy[color] ^= bit;
+        if (piece == Chess.PAWN) {
+            pawnKey ^= PAWN_KEYS[color][sqi];
+        }
+        middleGame += sign * PieceSquareTable.middleGame(stone, sqi);
+        endGame += sign * PieceSquareTable.endGame(stone, sqi);
+        phase += sign * PieceSquareTable.phase(piece);
+    }
+
+    /**
+     * Updates the incremental state for a move, from the position before it.
+     *
+     * @param sign 1 when the move is played, -1 when it is taken back
+     */
+    private void update(short move, int sign) {
+        final int from = Move.getFromSqi(move);
+        final int to = Move.getToSqi(move);
+        final int stone = game.getStone(from);
+        if (Move.isCastle(move)) {
+            final int row = Chess.sqiToRow(from);
+            final int rookFrom = Chess.coorToSqi(Move.isShortCastle(move) ? 7 : 0, row);
+            final int rookTo = Chess.coorToSqi(Move.isShortCastle(move) ? 5 : 3, row);
+            final int rook = game.getStone(rookFrom);
+            toggle(rook, rookFrom, -sign);
+            toggle(rook, rookTo, sign);
+        } else if (Move.isEPMove(move)) {
+            final int captured = Chess.coorToSqi(Chess.sqiToCol(to), Chess.sqiToRow(from));
+            toggle(game.getStone(captured), captured, -sign);
+        } else if (game.getStone(to) != Chess.NO_STONE) {
+            toggle(game.getStone(to), to, -sign);
+        }
+        toggle(stone, from, -sign);
+        if (Move.isPromotion(move)) {
+            toggle(Chess.pieceToStone(Move.getPromotionPiece(move), Chess.stoneToColor(stone)), to, sign);
+        } else {
+            toggle(stone, to, sign);
+        }
+    }
+
+    /**
+     * @return An independent board on the same position, with the same
+     * repetition history, for use by another search thread
+     */
+    public Board copy() {
+        final Board result = new Board(evaluator);
+        result.game = new Position(game);
+        result.repetitions.set(repetitions);
+        System.arraycopy(bitboards, 0, result.bitboards, 0, bitboards.length);
+        System.arraycopy(occupancy, 0, result.occupancy, 0, occupancy.length);
+        result.pawnKey = pawnKey;
+        result.middleGame = middleGame;
+        result.endGame = endGame;
+        result.phase = phase;
+        return result;
     }
 
     public Side getPlayer() {
-        return Chess.isWhitePly(game.getPlyNumber()) ? Side.WHITE : Side.BLACK;
+        return game.getToPlay() == Chess.WHITE ? Side.WHITE : Side.BLACK;
     }
 
     public long hashCode64() {
@@ -68,10 +194,96 @@ public final class Board implements Serializable {
         this.evaluator = evaluator;
     }
 
-    public double evaluate() {
+    public int evaluate() {
         return evaluator.evaluate(this);
     }
 
+    /**
+     * @return Material and piece-square score tapered by the game phase,
+     * positive when white is better
+     */
+    public int getPieceSquareScore() {
+        return PieceSquareTable.taper(middleGame, endGame, phase);
+    }
+
+    int getMiddleGameScore() {
+        return middleGame;
+    }
+
+    int getEndGameScore() {
+        return endGame;
+    }
+
+    /**
+     * @return Sum of the piece phases, from 0 with kings and pawns only
+     */
+    int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @param stone Chesspresso stone
+     * @return Squares holding this stone
+     */
+    long getBitboard(int stone) {
+        return bitboards[stone - Chess.MIN_STONE];
+    }
+
+    /**
+     * @param color Chesspresso color
+     * @return Squares holding a stone of this color
+     */
+    long getOccupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * @return Zobrist key of the pawns only
+     */
+    long getPawnKey() {
+        return pawnKey;
+    }
+
+    public boolean isCheck() {
+        return game.isCheck();
+    }
+
+    /**
+     * @param sqi Square index
+     * @return Piece type standing on the square, or NO_PIECE
+     */
+    public int getPiece(int sqi) {
+        return game.getPiece(sqi);
+    }
+
+    /**
+     * @return true if the side to move has another piece than pawns and king
+     */
+    public boolean hasPieces() {
+        final int color = game.getToPlay();
+        return (occupancy[color] & ~getBitboard(Chess.pieceToStone(Chess.PAWN, color))
+                & ~getBitboard(Chess.pieceToStone(Chess.KING, color))) != 0;
+    }
+
+    /**
+     * Passes the turn, the side to move must not be in check.
+     *
+     * @return The en passant square to give back to {@link #unplayNull(int)}
+     */
+    public int playNull() {
+        final int enPassant = game.getSqiEP();
+        game.setSqiEP(Chess.NO_SQUARE);
+        game.toggleToPlay();
+        repetitions.pushNull(hashCode64());
+        return enPassant;
+    }
+
+    public void unplayNull(int enPassant) {
+        repetitions.pop();
+        game.toggleToPlay();
+        game.setSqiEP(enPassant);
+    }
+
     public short[] getAllMoves() {
         return game.getAllMoves();
     }
@@ -84,6 +296,26 @@ public final class Board implements Serializable {
         return game.getAllNonCapturingMoves();
     }
 
+    /**
+     * Converts a move to the UCI notation, castles included.
+     *
+     * @param move Move in chesspresso encoding
+     * @return The same move as a jcpi model
+     */
+    public static GenericMove toGenericMove(short move) {
+        final StringBuilder notation = new StringBuilder(5);
+        notation.append(Chess.sqiToStr(Move.getFromSqi(move)));
+        notation.append(Chess.sqiToStr(Move.getToSqi(move)));
+        if (Move.isPromotion(move)) {
+            notation.append(Character.toLowerCase(Chess.pieceToChar(Move.getPromotionPiece(move))));
+        }
+        try {
+            return new GenericMove(notation.toString());
+        } catch (IllegalNotationException ex) {
+            throw new IllegalArgumentException(Move.getString(move), ex);
+        }
+    }
+
     public boolean play(List<GenericMove> moves) {
         for (GenericMove move : moves) {
             int promotion;
@@ -111,27 +343,46 @@ public final class Board implements Serializable {
             if (!play(ply)) {
                 return false;
             }
-            RepetitionTable.getInstance().recordRep(this);
         }
         return true;
     }
 
     public boolean play(short move) {
+        if (!Move.isValid(move) || game.getColor(Move.getFromSqi(move)) != game.getToPlay()) {
+            return false;
+        }
         boolean result = true;
+        update(move, 1);
         try {
             game.doMove(move);
-            if (!game.isLegal()) {
-                unplay();
+            if (game.isLegal()) {
+                repetitions.push(hashCode64());
+            } else {
+                game.undoMove();
+                update(move, -1);
                 result = false;
             }
         } catch (IllegalMoveException ex) {
+            update(move, -1);
             result = false;
         }
         return result;
     }
 
     public boolean unplay() {
-        return game.undoMove();
+        repetitions.pop();
+        final short move = game.getLastShortMove();
+        final boolean result = game.undoMove();
+        update(move, -1);
+        return result;
+    }
+
+    /**
+     * @return true if the current position already appeared since the last
+     * irreversible move
+     */
+    public boolean isRepetition() {
+        return repetitions.isRepetition(game.getHalfMoveClock());
     }
 
 }
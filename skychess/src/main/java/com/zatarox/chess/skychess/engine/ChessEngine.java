@@ -15,12 +15,21 @@
  */
 package com.zatarox.chess.skychess.engine;
 
-public interface ChessEngine {
+import java.util.concurrent.Callable;
+
+public interface ChessEngine extends Callable<Short> {
 
     Board getBoard();
 
     void setBoard(Board board);
     
+    /**
+     * Search the best move. While pondering or in infinite mode, the result
+     * is only returned once {@link #stop()} or a ponder hit is received.
+     *
+     * @return The best move found
+     */
+    @Override
     Short call();
 
     short getDepth();
@@ -31,8 +40,12 @@ public interface ChessEngine {
 
     int getMoveTime();
 
+    int getMovesToGo();
+
     boolean isPonder();
 
+    boolean isInfinite();
+
     void setDepth(short depth);
 
     void setEngineIncrement(int engineIncrement);
@@ -41,8 +54,33 @@ public interface ChessEngine {
 
     void setMoveTime(int moveTime);
 
+    void setMovesToGo(int movesToGo);
+
     void setPonder(boolean ponder);
 
+    void setInfinite(boolean infinite);
+
+    /**
+     * Clears any previous stop request. Must be called by the thread
+     * receiving stop requests before submitting a new search.
+     */
+    void prepare();
+
     void stop();
+
+    /**
+     * Stops the helper threads. They are started again by the next search.
+     */
+    void shutdown();
+
+    /**
+     * @return Counters of the current or last search
+     */
+    Statistics getStatistics();
+
+    /**
+     * @param listener Notified of the search progress, may be null
+     */
+    void setListener(SearchListener listener);
     
 }
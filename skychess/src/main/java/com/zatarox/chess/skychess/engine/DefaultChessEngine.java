@@ -15,19 +15,122 @@
  */
 package com.zatarox.chess.skychess.engine;
 
+import com.zatarox.chess.skychess.Notification;
+import com.zatarox.chess.skychess.Settings;
+import com.zatarox.chess.skychess.tables.EvaluationCache;
 import com.zatarox.chess.skychess.tables.TranspositionTable;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
 import chesspresso.move.Move;
 
+/**
+ * Iterative deepening search. When more than one thread is configured, the
+ * main searcher starts helpers on copies of the board (lazy SMP): they only
+ * share the transposition table and their results are ignored, but the
+ * entries they store speed up and deepen the main search.
+ */
 public class DefaultChessEngine implements ChessEngine, Serializable {
 
+    public static final int DRAW = 0;
+    /**
+     * Score of a mate on the board, mate in N plies scores MATE - N.
+     */
+    public static final int MATE = 32000;
+    /**
+     * Scores beyond this bound are mate scores.
+     */
+    public static final int MATE_BOUND = MATE - 256;
+    private static final int INFINITY = MATE + 1;
+    private static final short MAX_DEPTH = 64;
+    private static final int MAX_PLY = 2 * MAX_DEPTH;
+    private static final int POLL_MASK = 1023;
+    /**
+     * Minimal delay in ms between two progress reports.
+     */
+    private static final long REPORT_INTERVAL = 1000;
+    private static final int ASPIRATION_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 25;
+    /**
+     * Once the window was widened past this margin, the failing side is
+     * opened completely.
+     */
+    private static final int ASPIRATION_LIMIT = 400;
+    private static final int FUTILITY_DEPTH = 3;
+    private static final int FUTILITY_MARGIN = 150;
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+    private static final int NULL_VERIFICATION_DEPTH = 7;
+    /**
+     * Safety margin of delta pruning, for positional gains of a capture.
+     */
+    private static final int DELTA_MARGIN = 200;
+    /**
+     * Late move reductions indexed by depth and move number.
+     */
+    private static final int[][] REDUCTIONS = new int[64][64];
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int moves = 1; moves < 64; moves++) {
+                REDUCTIONS[depth][moves] = (int) (Math.log(depth) * Math.log(moves) / 2);
+            }
+        }
+    }
+
     private Board board;
     private short depth;
     private int engineTime;
     private int engineIncrement;
     private int moveTime;
-    private boolean ponder;
-    private boolean stop;
+    private int movesToGo;
+    private volatile boolean ponder;
+    private volatile boolean infinite;
+    private volatile boolean stop;
+    private boolean timeout;
+    private long reported;
+    private boolean nullMove;
+    private boolean lateMoveReductions;
+    private boolean futility;
+    private boolean reverseFutility;
+    private boolean mtdf;
+    private final TimeManager timer = new TimeManager();
+    private final Statistics statistics = new Statistics();
+    private transient SearchListener listener = null;
+    /**
+     * Triangular table: pv[ply] holds the best line found from ply onwards.
+     */
+    private final short[][] pv = new short[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final History history = new History(MAX_PLY + 1);
+    /**
+     * Swap list reused by every static exchange evaluation of this searcher.
+     */
+    private final int[] exchange = new int[StaticExchange.SWAP_LENGTH];
+    /**
+     * Zero for the main searcher.
+     */
+    private final int id;
+    private final List<DefaultChessEngine> helpers = new ArrayList<>();
+    private transient ExecutorService pool = null;
+
+    public DefaultChessEngine() {
+        this(0);
+    }
+
+    private DefaultChessEngine(int id) {
+        this.id = id;
+        for (int i = 0; i < pickers.length; i++) {
+            pickers[i] = new MovePicker();
+        }
+    }
 
     @Override
     public Board getBoard() {
@@ -79,125 +182,622 @@ public class DefaultChessEngine implements ChessEngine, Serializable {
         this.moveTime = moveTime;
     }
 
+    @Override
+    public int getMovesToGo() {
+        return movesToGo;
+    }
+
+    @Override
+    public void setMovesToGo(int movesToGo) {
+        this.movesToGo = movesToGo;
+    }
+
     @Override
     public boolean isPonder() {
         return ponder;
     }
 
     @Override
-    public void setPonder(boolean ponder) {
+    public synchronized void setPonder(boolean ponder) {
+        if (this.ponder && !ponder) {
+            timer.restart();
+        }
         this.ponder = ponder;
+        notifyAll();
+    }
+
+    @Override
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    @Override
+    public void setInfinite(boolean infinite) {
+        this.infinite = infinite;
+    }
+
+    /**
+     * @return Counters of this searcher and of its helpers
+     */
+    @Override
+    public Statistics getStatistics() {
+        if (helpers.isEmpty()) {
+            return statistics;
+        }
+        final Statistics result = new Statistics();
+        result.add(statistics);
+        for (final DefaultChessEngine helper : helpers) {
+            result.add(helper.statistics);
+        }
+        return result;
+    }
+
+    @Override
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return Best line of the last completed iteration
+     */
+    public short[] getPrincipalVariation() {
+        return Arrays.copyOf(pv[0], pvLength[0]);
     }
 
     private short search() {
-        double best = Double.NEGATIVE_INFINITY;
-        short move = Move.NO_MOVE;
-        for (final short m : board.getAllMoves()) {
-            if (board.play(m)) {
-                final double score = iterativeSearch();
+        final short[] moves = board.getAllMoves();
+        short best = moves.length > 0 ? moves[0] : Move.NO_MOVE;
+        int score = DRAW;
+        final short limit = depth > 0 ? depth : MAX_DEPTH;
+        // Odd helpers start one iteration ahead to desynchronize threads
+        for (short i = (short) (1 + (id & 1)); i <= limit && moves.length > 0; i++) {
+            final short[] line = getPrincipalVariation();
+            final int current = mtdf ? mtdf(moves, score, i) : aspiration(moves, score, i);
+            if (isAborted()) {
+                // Keep the line of the last completed iteration
+                pvLength[0] = line.length;
+                System.arraycopy(line, 0, pv[0], 0, line.length);
+                break;
+            }
+            score = current;
+            timer.update(moves[0] != best);
+            best = moves[0];
+            if (listener != null) {
+                listener.iterationDone(i, score, getStatistics(), timer.getElapsed(), getPrincipalVariation());
+            }
+            if (!ponder && timer.isSoftExpired()) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches a window around the score of the previous iteration, and
+     * widens it on the failing side until the score falls inside.
+     */
+    private int aspiration(short[] moves, int guess, short depth) {
+        int delta = ASPIRATION_WINDOW;
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        if (depth >= ASPIRATION_DEPTH && Math.abs(guess) < MATE_BOUND) {
+            alpha = guess - delta;
+            beta = guess + delta;
+        }
+        while (true) {
+            final int score = rootSearch(moves, depth, alpha, beta);
+            if (isAborted()) {
+                return score;
+            } else if (score <= alpha && alpha > -INFINITY) {
+                alpha = delta > ASPIRATION_LIMIT ? -INFINITY : Math.max(score - delta, -INFINITY);
+            } else if (score >= beta && beta < INFINITY) {
+                beta = delta > ASPIRATION_LIMIT ? INFINITY : Math.min(score + delta, INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Converges to the minimax score with null window searches only.
+     */
+    private int mtdf(short[] moves, int guess, short depth) {
+        int g = guess;
+        int lowerbound = -INFINITY;
+        int upperbound = INFINITY;
+        while (lowerbound < upperbound && !isAborted()) {
+            final int beta = (g == lowerbound) ? g + 1 : g;
+            g = rootSearch(moves, depth, beta - 1, beta);
+            if (g < beta) {
+                upperbound = g;
+            } else {
+                lowerbound = g;
+            }
+        }
+        return g;
+    }
+
+    /**
+     * One pass over all root moves. A move which raises alpha is moved to
+     * the front of the list, so the first move is always the best one found
+     * by the last pass which did not fail low.
+     *
+     * @return Fail-soft score of the pass, meaningless if aborted
+     */
+    private int rootSearch(short[] moves, short depth, int alpha, int beta) {
+        statistics.rootSearches++;
+        int best = -INFINITY;
+        for (int i = 0; i < moves.length; i++) {
+            final short move = moves[i];
+            if (board.play(move)) {
+                int score;
+                if (i == 0) {
+                    score = -negascout((short) (depth - 1), 1, -beta, -alpha, true);
+                } else {
+                    score = -negascout((short) (depth - 1), 1, -alpha - 1, -alpha, true);
+                    if (score > alpha && score < beta) {
+                        score = -negascout((short) (depth - 1), 1, -beta, -alpha, true);
+                    }
+                }
                 board.unplay();
+                if (isAborted()) {
+                    break;
+                }
                 if (score > best) {
                     best = score;
-                    move = m;
+                    if (score > alpha) {
+                        alpha = score;
+                        updatePrincipalVariation(0, move);
+                        System.arraycopy(moves, 0, moves, 1, i);
+                        moves[0] = move;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
                 }
             }
         }
-        return move;
+        return best;
+    }
+
+    /**
+     * Records the move as the best one at this ply, followed by the best line
+     * of its child node.
+     */
+    private void updatePrincipalVariation(int ply, short move) {
+        final int length = pvLength[ply + 1];
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    /**
+     * Counts the node, polls the clock and reports progress every
+     * {@link #POLL_MASK} + 1 nodes.
+     */
+    private void poll(int ply, boolean quiescent) {
+        if ((statistics.visit(ply, quiescent) & POLL_MASK) == 0) {
+            final long elapsed = timer.getElapsed();
+            if (!ponder && timer.isHardExpired()) {
+                timeout = true;
+            }
+            if (listener != null && elapsed - reported >= REPORT_INTERVAL) {
+                reported = elapsed;
+                listener.progress(getStatistics(), elapsed);
+            }
+        }
+    }
+
+    private boolean isAborted() {
+        return stop || timeout;
+    }
+
+    @Override
+    public synchronized void prepare() {
+        this.stop = false;
     }
 
     @Override
-    public void stop() {
+    public synchronized void stop() {
         this.stop = true;
+        notifyAll();
+    }
+
+    /**
+     * UCI forbids to answer before "stop" or "ponderhit" while pondering or
+     * searching infinitely.
+     */
+    private synchronized void release() {
+        try {
+            while ((ponder || infinite) && !stop) {
+                wait();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    private double quiesce(double alpha, double beta) {
-        double stand_pat = board.evaluate();
-        if (stand_pat >= beta) {
-            return beta;
-        } else if (alpha < stand_pat) {
-            alpha = stand_pat;
+    /**
+     * Resolves captures until the position is quiet. In check, every evasion
+     * is searched and no stand pat is allowed. Otherwise, captures losing
+     * material by SEE or unable to bring the score back to alpha are skipped.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        poll(ply, true);
+        final TranspositionTable table = TranspositionTable.getInstance();
+        final long entry = table.probe(board);
+        short hashMove = Move.NO_MOVE;
+        if (entry != TranspositionTable.MISS) {
+            final int cached = fromTable(TranspositionTable.getScore(entry), ply);
+            switch (TranspositionTable.getBound(entry)) {
+                case EXACT:
+                    return cached;
+                case LOWER:
+                    if (cached >= beta) {
+                        return cached;
+                    }
+                    break;
+                case UPPER:
+                    if (cached <= alpha) {
+                        return cached;
+                    }
+                    break;
+            }
+            hashMove = TranspositionTable.getMove(entry);
+        }
+
+        final boolean check = board.isCheck() && ply < MAX_PLY;
+        final int origin = alpha;
+        final int standPat;
+        int best;
+        if (check) {
+            standPat = -INFINITY;
+            best = -INFINITY;
+        } else {
+            standPat = evaluate();
+            if (standPat >= beta || ply >= MAX_PLY) {
+                return standPat;
+            }
+            best = standPat;
+            alpha = Math.max(alpha, standPat);
         }
 
-        for (final short move : board.getAllCapturingMoves()) {
+        short bestMove = Move.NO_MOVE;
+        boolean legal = false;
+        final MovePicker picker = pickers[ply];
+        picker.init(board, check ? board.getAllMoves() : board.getAllCapturingMoves(), hashMove, null, null);
+        for (short move = picker.next(); move != Move.NO_MOVE && !isAborted(); move = picker.next()) {
+            if (!check) {
+                final int delta = standPat + StaticExchange.captured(board, move) + DELTA_MARGIN;
+                if (!Move.isPromotion(move) && delta <= alpha) {
+                    // The pruned capture may still be worth up to delta, keep the bound honest
+                    best = Math.max(best, delta);
+                    statistics.deltaPruned++;
+                    continue;
+                }
+                if (StaticExchange.evaluate(board, move, exchange) < 0) {
+                    statistics.exchangePruned++;
+                    continue;
+                }
+            }
             if (board.play(move)) {
-                final double score = -quiesce(-beta, -alpha);
+                legal = true;
+                final int score = -quiesce(ply + 1, -beta, -alpha);
                 board.unplay();
-
-                if (score >= beta) {
-                    return beta;
-                } else if (score > alpha) {
-                    alpha = score;
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
                 }
             }
         }
-        return alpha;
-    }
+        if (check && !legal) {
+            return -MATE + ply;
+        }
 
-    private double iterativeSearch() {
-        double firstguess = 0;
-        for (short i = 1; i < depth; i++) {
-            firstguess = mtdf(firstguess, i);
+        if (!isAborted()) {
+            final TranspositionTable.Bound bound;
+            if (best <= origin) {
+                bound = TranspositionTable.Bound.UPPER;
+            } else if (best >= beta) {
+                bound = TranspositionTable.Bound.LOWER;
+            } else {
+                bound = TranspositionTable.Bound.EXACT;
+            }
+            table.put(board, 0, toTable(best, ply), bound, bestMove);
         }
-        return firstguess;
+        return best;
     }
 
-    private double mtdf(double first, short depth) {
-        double g = first;
-        double lowerbound = Double.NEGATIVE_INFINITY;
-        double upperbound = Double.POSITIVE_INFINITY;
-        do {
-            double beta = (g == lowerbound) ? g + 1 : g;
-            g = -negascout(depth, beta - 1, beta);
-        } while (lowerbound >= upperbound);
-        return g;
-    }
+    /**
+     * @param ply Distance from the root, used to prefer the shortest mates
+     * @param nullAllowed false right after a null move and while verifying
+     * a null move cutoff
+     */
+    private int negascout(short depth, int ply, int alpha, int beta, boolean nullAllowed) {
+        poll(ply, false);
+        pvLength[ply] = ply;
+        if (board.isRepetition()) {
+            return DRAW;
+        }
+        final TranspositionTable table = TranspositionTable.getInstance();
+        final long entry = table.probe(board);
+        final short hashMove = entry != TranspositionTable.MISS ? TranspositionTable.getMove(entry) : Move.NO_MOVE;
+        if (entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) >= depth) {
+            final int cached = fromTable(TranspositionTable.getScore(entry), ply);
+            switch (TranspositionTable.getBound(entry)) {
+                case EXACT:
+                    return cached;
+                case LOWER:
+                    alpha = Math.max(alpha, cached);
+                    break;
+                case UPPER:
+                    beta = Math.min(beta, cached);
+                    break;
+            }
+            if (alpha >= beta) {
+                return cached;
+            }
+        }
+        if (depth <= 0 || isAborted()) {
+            return quiesce(ply, alpha, beta);
+        }
+
+        final boolean check = board.isCheck();
+        // Forward pruning only in null window nodes far from mate scores
+        final boolean prunable = !check && beta - alpha == 1 && Math.abs(beta) < MATE_BOUND;
+        final int eval = prunable ? evaluate() : -INFINITY;
+        if (prunable && reverseFutility && depth <= FUTILITY_DEPTH && eval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+            statistics.reverseFutilityPruned++;
+            return eval - REVERSE_FUTILITY_MARGIN * depth;
+        }
+        if (prunable && nullMove && nullAllowed && depth >= 2 && eval >= beta && board.hasPieces()) {
+            final short reduced = (short) (depth - 1 - (depth > 6 ? 3 : 2));
+            final int enPassant = board.playNull();
+            int score = -negascout(reduced, ply + 1, -beta, -beta + 1, false);
+            board.unplayNull(enPassant);
+            if (score >= beta && !isAborted()) {
+                // Zugzwang guard: deep cutoffs are confirmed without null move
+                if (depth >= NULL_VERIFICATION_DEPTH) {
+                    statistics.nullMoveVerifications++;
+                    score = negascout(reduced, ply, beta - 1, beta, false);
+                }
+                if (score >= beta) {
+                    statistics.nullMoveCutoffs++;
+                    return score >= MATE_BOUND ? beta : score;
+                }
+            }
+        }
+        final boolean frontier = prunable && futility && depth <= FUTILITY_DEPTH
+                && eval + FUTILITY_MARGIN * depth <= alpha;
 
-    private double negascout(short depth, double alpha, double beta) {
-        double score = Double.NEGATIVE_INFINITY;
+        final int origin = alpha;
+        int best = -INFINITY;
         short bestMove = Move.NO_MOVE;
-        //Flag flag = Flag.ALPHA;
-        if (TranspositionTable.getInstance().contains(board)) {
-            double lower = TranspositionTable.getInstance().getLowerbound(board);
-            double upper = TranspositionTable.getInstance().getUpperbound(board);
-            if (lower >= beta) {
-                return lower;
-            } else if (upper <= alpha) {
-                return upper;
-            }
-            alpha = Math.max(alpha, lower);
-            beta = Math.min(beta, upper);
-        } else {
-            double b = beta;
-            if (depth > 0 && !stop) {
-                boolean first = true;
-                for (final short move : board.getAllMoves()) {
-                    if (board.play(move)) {
-                        score = -negascout((short) (depth - 1), -b, -alpha);
-                        if ((score > alpha) && (score < b) && !first) {
-                            score = -negascout((short) (depth - 1), -beta, -alpha);
+        int played = 0;
+        final short[] killers = history.getKillers(ply);
+        final MovePicker picker = pickers[ply];
+        picker.init(board, board.getAllMoves(), hashMove, killers, history);
+        for (short move = picker.next(); move != Move.NO_MOVE; move = picker.next()) {
+            if (board.play(move)) {
+                played++;
+                final boolean quiet = !Move.isCapturing(move) && !Move.isPromotion(move)
+                        && !board.isCheck();
+                if (frontier && quiet && played > 1) {
+                    board.unplay();
+                    statistics.futilityPruned++;
+                    best = Math.max(best, eval + FUTILITY_MARGIN * depth);
+                    continue;
+                }
+                int score;
+                if (played == 1) {
+                    score = -negascout((short) (depth - 1), ply + 1, -beta, -alpha, true);
+                } else {
+                    int reduction = 0;
+                    if (lateMoveReductions && quiet && !check && depth >= 3 && played > 3
+                            && move != killers[0] && move != killers[1]) {
+                        reduction = Math.min(REDUCTIONS[Math.min(depth, 63)][Math.min(played, 63)], depth - 2);
+                    }
+                    score = -negascout((short) (depth - 1 - reduction), ply + 1, -alpha - 1, -alpha, true);
+                    if (reduction > 0) {
+                        statistics.lateMoveReductions++;
+                        if (score > alpha) {
+                            statistics.lateMoveResearches++;
+                            score = -negascout((short) (depth - 1), ply + 1, -alpha - 1, -alpha, true);
                         }
-                        board.unplay();
-                        first = false;
-                        alpha = Math.max(alpha, score);
+                    }
+                    if (score > alpha && score < beta) {
+                        score = -negascout((short) (depth - 1), ply + 1, -beta, -alpha, true);
+                    }
+                }
+                board.unplay();
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        updatePrincipalVariation(ply, move);
                         if (alpha >= beta) {
-                            //flag = Flag.EXACT;
-                            bestMove = move;
+                            if (!Move.isCapturing(move) && !Move.isPromotion(move)) {
+                                history.update(board, move, ply, depth);
+                            }
                             break;
                         }
-                        b = alpha + 1;
                     }
                 }
+            }
+        }
+        if (played == 0) {
+            // No legal move: mated or stalemate
+            return check ? -MATE + ply : DRAW;
+        }
+
+        if (!isAborted()) {
+            final TranspositionTable.Bound bound;
+            if (best <= origin) {
+                bound = TranspositionTable.Bound.UPPER;
+            } else if (best >= beta) {
+                bound = TranspositionTable.Bound.LOWER;
             } else {
-                alpha = quiesce(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+                bound = TranspositionTable.Bound.EXACT;
+            }
+            table.put(board, depth, toTable(best, ply), bound, bestMove);
+        }
+        return best;
+    }
+
+    /**
+     * Static evaluation of the current board, looked up first in the shared
+     * evaluation cache.
+     */
+    private int evaluate() {
+        final EvaluationCache cache = EvaluationCache.getInstance();
+        final long entry = cache.probe(board);
+        statistics.evaluations++;
+        if (entry != EvaluationCache.MISS) {
+            statistics.evaluationHits++;
+            return EvaluationCache.getScore(entry);
+        }
+        final int score = board.evaluate();
+        cache.put(board, score);
+        return score;
+    }
+
+    /**
+     * Mate scores are stored relative to the node, not to the root.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        } else if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        } else if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    @Override
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Starts the helpers on copies of the current board, creating them if
+     * the number of threads changed.
+     */
+    private List<Future<?>> startHelpers() {
+        final int count = Settings.getInstance().getThreads() - 1;
+        if (helpers.size() != count) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+            helpers.clear();
+            for (int i = 1; i <= count; i++) {
+                helpers.add(new DefaultChessEngine(i));
+            }
+        }
+        if (pool == null && count > 0) {
+            pool = Executors.newFixedThreadPool(count, new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread result = new Thread(runnable, "helper");
+                    result.setDaemon(true);
+                    return result;
+                }
+            });
+        }
+        final List<Future<?>> result = new ArrayList<>(count);
+        for (final DefaultChessEngine helper : helpers) {
+            helper.setBoard(board.copy());
+            helper.prepare();
+            helper.statistics.reset();
+            result.add(pool.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    helper.assist();
+                }
+            }));
+        }
+        return result;
+    }
+
+    private void stopHelpers(List<Future<?>> searches) {
+        for (final DefaultChessEngine helper : helpers) {
+            helper.stop();
+        }
+        for (final Future<?> search : searches) {
+            try {
+                search.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Notification.getInstance().getLogger().log(Level.SEVERE, "Error in helper search", e);
             }
-            TranspositionTable.getInstance().put(board, alpha, beta);
         }
-        return alpha;
+    }
+
+    /**
+     * Reads the search driver and the pruning switches once per search.
+     */
+    private void configure() {
+        final Settings settings = Settings.getInstance();
+        nullMove = settings.isNullMove();
+        lateMoveReductions = settings.isLateMoveReductions();
+        futility = settings.isFutility();
+        reverseFutility = settings.isReverseFutility();
+        mtdf = Settings.SEARCH_MTDF.equals(settings.getSearch());
+    }
+
+    /**
+     * Searches without time limit until the main searcher stops.
+     */
+    private void assist() {
+        timeout = false;
+        configure();
+        history.clear();
+        pvLength[0] = 0;
+        timer.start(0, 0, 0, 0);
+        search();
     }
 
     @Override
     public Short call() {
-        stop = false;
-        return search();
+        timeout = false;
+        reported = 0;
+        statistics.reset();
+        configure();
+        history.clear();
+        pvLength[0] = 0;
+        if (infinite) {
+            timer.start(0, 0, 0, 0);
+        } else {
+            timer.start(engineTime, engineIncrement, movesToGo, moveTime);
+        }
+        TranspositionTable.getInstance().newSearch();
+        final List<Future<?>> searches = startHelpers();
+        final short best = search();
+        stopHelpers(searches);
+        release();
+        return best;
     }
 }
@@ -15,16 +15,15 @@
  */
 package com.zatarox.chess.skychess.engine;
 
+/**
+ * Material and piece-square evaluation, kept up to date by the board on each
+ * move. Mate and stalemate are detected by the search.
+ */
 public class DefaultEvaluator implements Evaluator {
 
     @Override
-    public double evaluate(Board board) {
-        double result;
-        if (board.game.isStaleMate()) {
-            result = Double.NEGATIVE_INFINITY;
-        } else {
-            result = board.game.getDomination() + board.game.getMaterial();
-        }
-        return result;
+    public int evaluate(Board board) {
+        final int score = board.getPieceSquareScore();
+        return board.getPlayer() == Board.Side.WHITE ? score : -score;
     }
 }
@@ -17,5 +17,9 @@ package com.zatarox.chess.skychess.engine;
 
 public interface Evaluator {
 
-    double evaluate(Board board);
+    /**
+     * @param board Position to evaluate
+     * @return Score in centipawns, from the side to move point of view
+     */
+    int evaluate(Board board);
 }
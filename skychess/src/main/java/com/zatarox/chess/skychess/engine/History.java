@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import java.util.Arrays;
+import chesspresso.move.Move;
+
+/**
+ * Killer moves per ply and history scores per side, origin and destination
+ * of the quiet moves which caused a beta cutoff.
+ */
+final class History {
+
+    /**
+     * Scores are halved once one of them reaches this limit, so they stay
+     * below the killer moves in {@link MovePicker}.
+     */
+    private static final int LIMIT = 1 << 20;
+
+    private final short[][] killers;
+    private final int[] scores = new int[2 * 64 * 64];
+
+    History(int plies) {
+        killers = new short[plies][2];
+    }
+
+    void clear() {
+        for (final short[] moves : killers) {
+            Arrays.fill(moves, Move.NO_MOVE);
+        }
+        Arrays.fill(scores, 0);
+    }
+
+    short[] getKillers(int ply) {
+        return killers[ply];
+    }
+
+    int get(Board board, short move) {
+        return scores[index(board, move)];
+    }
+
+    /**
+     * Records a quiet move which caused a beta cutoff.
+     *
+     * @param board Position before the move
+     * @param move The quiet move
+     * @param ply Distance from the root
+     * @param depth Remaining depth, deeper cutoffs weigh more
+     */
+    void update(Board board, short move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        final int i = index(board, move);
+        scores[i] += depth * depth;
+        if (scores[i] >= LIMIT) {
+            for (int j = 0; j < scores.length; j++) {
+                scores[j] /= 2;
+            }
+        }
+    }
+
+    private static int index(Board board, short move) {
+        return (board.getPlayer().ordinal() << 12) | (Move.getFromSqi(move) << 6) | Move.getToSqi(move);
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import chesspresso.Chess;
+import chesspresso.move.Move;
+
+/**
+ * Returns the moves of a node best first: hash move, captures by MVV-LVA,
+ * killer moves and then quiet moves by history. Moves are scored once and
+ * selected on demand, so nothing is sorted after a cutoff.
+ */
+final class MovePicker {
+
+    private static final int HASH = Integer.MAX_VALUE;
+    private static final int CAPTURE = 1 << 24;
+    private static final int KILLER = 1 << 22;
+    /**
+     * Ordering values indexed by chesspresso piece, king last.
+     */
+    private static final int[] VALUES = new int[Chess.MAX_PIECE + 1];
+
+    static {
+        VALUES[Chess.PAWN] = 1;
+        VALUES[Chess.KNIGHT] = 3;
+        VALUES[Chess.BISHOP] = 3;
+        VALUES[Chess.ROOK] = 5;
+        VALUES[Chess.QUEEN] = 9;
+        VALUES[Chess.KING] = 10;
+    }
+
+    private final int[] scores = new int[256];
+    private short[] moves;
+    private int index;
+
+    /**
+     * @param board Position of the node
+     * @param moves Moves to pick from, reordered in place
+     * @param hashMove Best move from the transposition table, or NO_MOVE
+     * @param killers Killer moves of the ply, may be null
+     * @param history History table, may be null
+     */
+    void init(Board board, short[] moves, short hashMove, short[] killers, History history) {
+        this.moves = moves;
+        this.index = 0;
+        for (int i = 0; i < moves.length; i++) {
+            final short move = moves[i];
+            if (move == hashMove) {
+                scores[i] = HASH;
+            } else if (Move.isCapturing(move) || Move.isPromotion(move)) {
+                final int victim = Move.isEPMove(move) ? Chess.PAWN : board.getPiece(Move.getToSqi(move));
+                final int promotion = Move.isPromotion(move) ? VALUES[Move.getPromotionPiece(move)] : 0;
+                scores[i] = CAPTURE + 16 * (VALUES[victim] + promotion) - VALUES[board.getPiece(Move.getFromSqi(move))];
+            } else if (killers != null && move == killers[0]) {
+                scores[i] = KILLER + 1;
+            } else if (killers != null && move == killers[1]) {
+                scores[i] = KILLER;
+            } else if (history != null) {
+                scores[i] = history.get(board, move);
+            } else {
+                scores[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return The best remaining move, or NO_MOVE once all were returned
+     */
+    short next() {
+        if (index >= moves.length) {
+            return Move.NO_MOVE;
+        }
+        int best = index;
+        for (int i = index + 1; i < moves.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        final short result = moves[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = result;
+        index++;
+        return result;
+    }
+
+}
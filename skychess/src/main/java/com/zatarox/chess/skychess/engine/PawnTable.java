@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+/**
+ * Lockless cache of the pawn structure scores, keyed on the pawn-only
+ * zobrist key. Each slot holds the key xor-ed with the data, then the data:
+ * the middle game score in the high half and the end game one in the low.
+ */
+final class PawnTable {
+
+    static final long MISS = 0L;
+
+    private final long[] table;
+    private final int mask;
+
+    /**
+     * @param slots Number of entries, a power of two
+     */
+    PawnTable(int slots) {
+        table = new long[2 * slots];
+        mask = slots - 1;
+    }
+
+    /**
+     * @return The packed scores, or {@link #MISS}; an all zero entry reads
+     * as a miss and is merely computed again
+     */
+    long probe(long key) {
+        final int index = ((int) key & mask) << 1;
+        final long data = table[index + 1];
+        return (table[index] ^ data) == key ? data : MISS;
+    }
+
+    /**
+     * Always replaces the slot.
+     *
+     * @return The packed scores
+     */
+    long put(long key, int middleGame, int endGame) {
+        final long data = ((long) middleGame << 32) | (endGame & 0xffffffffL);
+        final int index = ((int) key & mask) << 1;
+        table[index] = key ^ data;
+        table[index + 1] = data;
+        return data;
+    }
+
+    static int getMiddleGame(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int getEndGame(long entry) {
+        return (int) entry;
+    }
+
+}
@@ -16,8 +16,10 @@
 package com.zatarox.chess.skychess.engine;
 
 import com.zatarox.chess.skychess.Notification;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.logging.Level;
 import chesspresso.move.IllegalMoveException;
 import chesspresso.move.Move;
@@ -28,6 +30,11 @@ import chesspresso.position.Position;
  */
 public class Perft {
 
+    /**
+     * Plies split into parallel tasks below the root.
+     */
+    private static final int SPLIT_DEPTH = 2;
+
     /**
      * Start the perft search
      *
@@ -58,6 +65,65 @@ public class Perft {
 
     }
 
+    /**
+     * Start a perft search spread over a fork/join pool. The root moves and
+     * their replies are counted by parallel tasks, each one on its own copy
+     * of the position.
+     *
+     * @param board
+     * The board to search, left unchanged
+     * @param depth
+     * The depth to search to
+     * @param pool
+     * The pool running the tasks
+     * @param megabytes
+     * Size of the table reusing the counts of transpositions, 0 for none
+     * @return number of nodes
+     */
+    public static long perft(Position board, int depth, ForkJoinPool pool, int megabytes) {
+        final PerftTable table = megabytes > 0 ? new PerftTable(megabytes) : null;
+        return pool.invoke(new PerftTask(new Position(board), depth, SPLIT_DEPTH, table));
+    }
+
+    /**
+     * Counts the nodes below a position, forking one task per legal move
+     * while plies remain to split.
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+        private final Position board;
+        private final int depth;
+        private final int split;
+        private final PerftTable table;
+
+        PerftTask(Position board, int depth, int split, PerftTable table) {
+            this.board = board;
+            this.depth = depth;
+            this.split = split;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            if (split == 0 || depth <= 2) {
+                return miniMax(board, depth, table);
+            }
+            final List<PerftTask> tasks = new ArrayList<>();
+            for (final short move : board.getAllMoves()) {
+                doMove(board, move);
+                tasks.add(new PerftTask(new Position(board), depth - 1, split - 1, table));
+                board.undoMove();
+            }
+            invokeAll(tasks);
+            long nodes = 0;
+            for (final PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
     /**
      * Keeps track of every starting move and its number of child moves, and
      * then prints it on the screen.
@@ -68,25 +134,26 @@ public class Perft {
      * The depth to search to
      */
     private static long divide(Position board, int depth) {
-        List<Long> children = new LinkedList<>();
         final short[] moves = board.getAllMoves();
-        for (final short move : moves) {
-            try {
-                board.doMove(move);
-                children.add(miniMax(board, depth - 1));
+        final long[] children = new long[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            if (depth > 1) {
+                doMove(board, moves[i]);
+                children[i] = miniMax(board, depth - 1, null);
                 board.undoMove();
-            } catch (IllegalMoveException ex) {
+            } else {
+                children[i] = 1;
             }
         }
 
         long nodes = 0;
-        for (int i = 0; i < children.size(); i++) {
+        for (int i = 0; i < moves.length; i++) {
             System.out.print(Move.getString(moves[i]) + " ");
-            System.out.println(children.get(i));
-            nodes += children.get(i);
+            System.out.println(children[i]);
+            nodes += children[i];
         }
 
-        System.out.println("Moves: " + children.size());
+        System.out.println("Moves: " + moves.length);
         return nodes;
     }
 
@@ -101,26 +168,55 @@ public class Perft {
      * @return int The number of moves found
      */
     private static long miniMax(Position board, int depth) {
-        long nodes = 0;
+        return miniMax(board, depth, null);
+    }
 
+    /**
+     * @param table
+     * Counts of the positions already searched, or null
+     */
+    private static long miniMax(Position board, int depth, PerftTable table) {
         if (depth == 0) {
             return 1;
         }
 
-        for (final short move : board.getAllMoves()) {
-            try {
-                board.doMove(move);
-                nodes += miniMax(board, depth - 1);
-                board.undoMove();
-            } catch (IllegalMoveException ex) {
-            } catch(RuntimeException ex) {
-                System.err.println(board);
+        // Only legal moves are generated, the last ply is counted in bulk
+        if (depth == 1) {
+            return board.getAllMoves().length;
+        }
+
+        final long key = board.getHashCode();
+        if (table != null) {
+            final long cached = table.probe(key, depth);
+            if (cached != PerftTable.MISS) {
+                return cached;
             }
         }
 
+        long nodes = 0;
+        for (final short move : board.getAllMoves()) {
+            doMove(board, move);
+            nodes += miniMax(board, depth - 1, table);
+            board.undoMove();
+        }
+
+        if (table != null) {
+            table.put(key, depth, nodes);
+        }
         return nodes;
     }
 
+    /**
+     * Plays a generated move, which chesspresso guarantees to be legal.
+     */
+    private static void doMove(Position board, short move) {
+        try {
+            board.doMove(move);
+        } catch (IllegalMoveException ex) {
+            throw new IllegalStateException(Move.getString(move), ex);
+        }
+    }
+
     /**
      * Takes number and converts it to minutes, seconds and fraction of a second
      * also includes leading zeros
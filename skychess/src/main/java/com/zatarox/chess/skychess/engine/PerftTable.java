@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+/**
+ * Lockless, always-replace table of perft subtree counts shared by the perft
+ * tasks. Each slot holds the position key xor-ed with the data, then the
+ * data: the node count above the depth byte.
+ */
+final class PerftTable {
+
+    static final long MISS = -1L;
+
+    private static final int SLOT_BYTES = 2 * 8;
+
+    private final long[] table;
+    private final int mask;
+
+    /**
+     * @param megabytes Size of the table in MB
+     */
+    PerftTable(int megabytes) {
+        final long slots = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / SLOT_BYTES));
+        table = new long[(int) Math.min(slots, 1 << 29) * 2];
+        mask = table.length / 2 - 1;
+    }
+
+    /**
+     * @return The node count of the position at this depth, or {@link #MISS}
+     */
+    long probe(long key, int depth) {
+        final int index = ((int) key & mask) << 1;
+        final long data = table[index + 1];
+        if ((table[index] ^ data) == key && (int) (data & 0xff) == depth) {
+            return data >>> 8;
+        }
+        return MISS;
+    }
+
+    void put(long key, int depth, long nodes) {
+        final long data = (nodes << 8) | depth;
+        final int index = ((int) key & mask) << 1;
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import chesspresso.Chess;
+
+/**
+ * Material and piece-square values for the middle game and the end game,
+ * from white point of view, so that the board can update them on each move.
+ */
+final class PieceSquareTable {
+
+    /**
+     * Phase of the starting position, the score is then the middle game one.
+     */
+    static final int MAX_PHASE = 24;
+
+    /**
+     * Tables are written as seen by white, eighth rank first.
+     */
+    private static final int[][] MIDDLE_GAME_TABLES = new int[Chess.MAX_PIECE + 1][];
+    private static final int[][] END_GAME_TABLES = new int[Chess.MAX_PIECE + 1][];
+    private static final int[] MIDDLE_GAME_MATERIAL = new int[Chess.MAX_PIECE + 1];
+    private static final int[] END_GAME_MATERIAL = new int[Chess.MAX_PIECE + 1];
+    private static final int[] PHASES = new int[Chess.MAX_PIECE + 1];
+    /**
+     * Values indexed by stone - MIN_STONE and square.
+     */
+    private static final int[][] MIDDLE_GAME = new int[Chess.MAX_STONE - Chess.MIN_STONE + 1][Chess.NUM_OF_SQUARES];
+    private static final int[][] END_GAME = new int[Chess.MAX_STONE - Chess.MIN_STONE + 1][Chess.NUM_OF_SQUARES];
+
+    static {
+        MIDDLE_GAME_MATERIAL[Chess.PAWN] = 100;
+        MIDDLE_GAME_MATERIAL[Chess.KNIGHT] = 320;
+        MIDDLE_GAME_MATERIAL[Chess.BISHOP] = 330;
+        MIDDLE_GAME_MATERIAL[Chess.ROOK] = 500;
+        MIDDLE_GAME_MATERIAL[Chess.QUEEN] = 900;
+        END_GAME_MATERIAL[Chess.PAWN] = 120;
+        END_GAME_MATERIAL[Chess.KNIGHT] = 300;
+        END_GAME_MATERIAL[Chess.BISHOP] = 320;
+        END_GAME_MATERIAL[Chess.ROOK] = 530;
+        END_GAME_MATERIAL[Chess.QUEEN] = 950;
+        PHASES[Chess.KNIGHT] = 1;
+        PHASES[Chess.BISHOP] = 1;
+        PHASES[Chess.ROOK] = 2;
+        PHASES[Chess.QUEEN] = 4;
+        MIDDLE_GAME_TABLES[Chess.PAWN] = new int[]{
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+        };
+        MIDDLE_GAME_TABLES[Chess.KNIGHT] = new int[]{
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+        };
+        MIDDLE_GAME_TABLES[Chess.BISHOP] = new int[]{
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+        };
+        MIDDLE_GAME_TABLES[Chess.ROOK] = new int[]{
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+        };
+        MIDDLE_GAME_TABLES[Chess.QUEEN] = new int[]{
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+        };
+        MIDDLE_GAME_TABLES[Chess.KING] = new int[]{
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+        };
+        END_GAME_TABLES[Chess.PAWN] = new int[]{
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+        };
+        END_GAME_TABLES[Chess.KNIGHT] = MIDDLE_GAME_TABLES[Chess.KNIGHT];
+        END_GAME_TABLES[Chess.BISHOP] = MIDDLE_GAME_TABLES[Chess.BISHOP];
+        END_GAME_TABLES[Chess.ROOK] = new int[Chess.NUM_OF_SQUARES];
+        END_GAME_TABLES[Chess.QUEEN] = MIDDLE_GAME_TABLES[Chess.QUEEN];
+        END_GAME_TABLES[Chess.KING] = new int[]{
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+        };
+        for (int piece = Chess.MIN_PIECE + 1; piece <= Chess.MAX_PIECE; piece++) {
+            final int white = Chess.pieceToStone(piece, Chess.WHITE) - Chess.MIN_STONE;
+            final int black = Chess.pieceToStone(piece, Chess.BLACK) - Chess.MIN_STONE;
+            for (int sqi = 0; sqi < Chess.NUM_OF_SQUARES; sqi++) {
+                final int col = Chess.sqiToCol(sqi);
+                final int row = Chess.sqiToRow(sqi);
+                MIDDLE_GAME[white][sqi] = MIDDLE_GAME_MATERIAL[piece] + MIDDLE_GAME_TABLES[piece][(7 - row) * 8 + col];
+                MIDDLE_GAME[black][sqi] = -MIDDLE_GAME_MATERIAL[piece] - MIDDLE_GAME_TABLES[piece][row * 8 + col];
+                END_GAME[white][sqi] = END_GAME_MATERIAL[piece] + END_GAME_TABLES[piece][(7 - row) * 8 + col];
+                END_GAME[black][sqi] = -END_GAME_MATERIAL[piece] - END_GAME_TABLES[piece][row * 8 + col];
+            }
+        }
+    }
+
+    private PieceSquareTable() {
+    }
+
+    /**
+     * @param stone Chesspresso stone, may be NO_STONE
+     * @param sqi Square index
+     * @return Middle game value of the stone on the square, positive for white
+     */
+    static int middleGame(int stone, int sqi) {
+        return MIDDLE_GAME[stone - Chess.MIN_STONE][sqi];
+    }
+
+    /**
+     * @param stone Chesspresso stone, may be NO_STONE
+     * @param sqi Square index
+     * @return End game value of the stone on the square, positive for white
+     */
+    static int endGame(int stone, int sqi) {
+        return END_GAME[stone - Chess.MIN_STONE][sqi];
+    }
+
+    /**
+     * @param piece Chesspresso piece
+     * @return Contribution of the piece to the game phase
+     */
+    static int phase(int piece) {
+        return PHASES[piece];
+    }
+
+    /**
+     * Interpolates between the middle game and the end game scores.
+     *
+     * @param phase Sum of the piece phases, capped to {@link #MAX_PHASE}
+     */
+    static int taper(int middleGame, int endGame, int phase) {
+        final int weight = Math.min(phase, MAX_PHASE);
+        return (middleGame * weight + endGame * (MAX_PHASE - weight)) / MAX_PHASE;
+    }
+
+}
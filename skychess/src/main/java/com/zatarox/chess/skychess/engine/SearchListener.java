@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+/**
+ * Receives the progress of a search, from the searching thread.
+ */
+public interface SearchListener {
+
+    /**
+     * Called at the end of each completed iteration.
+     *
+     * @param depth Depth of the iteration
+     * @param score Score of the best move in centipawns or mate score
+     * @param statistics Counters of the running search
+     * @param time Elapsed milliseconds since the search started
+     * @param pv Principal variation, starting with the best move
+     */
+    void iterationDone(int depth, int score, Statistics statistics, long time, short[] pv);
+
+    /**
+     * Called at most once per second while an iteration is running.
+     *
+     * @param statistics Counters of the running search
+     * @param time Elapsed milliseconds since the search started
+     */
+    void progress(Statistics statistics, long time);
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import chesspresso.Chess;
+import chesspresso.move.Move;
+import chesspresso.position.Position;
+
+/**
+ * Static exchange evaluation: material balance of the capture sequence on
+ * the destination square of a move, each side capturing with its least
+ * valuable attacker and free to stop when it would lose material.
+ */
+final class StaticExchange {
+
+    /**
+     * Piece values in centipawns, indexed by chesspresso piece.
+     */
+    private static final int[] VALUES = new int[Chess.MAX_PIECE + 1];
+    private static final int[] KNIGHT_COLS = {1, 2, 2, 1, -1, -2, -2, -1};
+    private static final int[] KNIGHT_ROWS = {2, 1, -1, -2, -2, -1, 1, 2};
+    private static final int[] KING_COLS = {1, 1, 1, 0, -1, -1, -1, 0};
+    private static final int[] KING_ROWS = {1, 0, -1, -1, -1, 0, 1, 1};
+    /**
+     * Size of the swap list, there are at most 32 stones on the board.
+     */
+    static final int SWAP_LENGTH = 32;
+
+    static {
+        VALUES[Chess.PAWN] = 100;
+        VALUES[Chess.KNIGHT] = 320;
+        VALUES[Chess.BISHOP] = 330;
+        VALUES[Chess.ROOK] = 500;
+        VALUES[Chess.QUEEN] = 900;
+        VALUES[Chess.KING] = 20000;
+    }
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @param piece Chesspresso piece
+     * @return Its value in centipawns
+     */
+    static int value(int piece) {
+        return VALUES[piece];
+    }
+
+    /**
+     * @return Value of the piece taken by the move, promotion gain included
+     */
+    static int captured(Board board, short move) {
+        int result = Move.isEPMove(move) ? VALUES[Chess.PAWN] : VALUES[board.game.getPiece(Move.getToSqi(move))];
+        if (Move.isPromotion(move)) {
+            result += VALUES[Move.getPromotionPiece(move)] - VALUES[Chess.PAWN];
+        }
+        return result;
+    }
+
+    /**
+     * @param board Position before the move
+     * @param move Capture or promotion to evaluate
+     * @param gain Swap list of SWAP_LENGTH entries, owned by the caller
+     * so that nothing is allocated in the quiescence search
+     * @return Expected material gain of the move for the side to move
+     */
+    static int evaluate(Board board, short move, int[] gain) {
+        final Position game = board.game;
+        final int to = Move.getToSqi(move);
+        long removed = 1L << Move.getFromSqi(move);
+        if (Move.isEPMove(move)) {
+            removed |= 1L << Chess.coorToSqi(Chess.sqiToCol(to), Chess.sqiToRow(Move.getFromSqi(move)));
+        }
+        int color = game.getToPlay() == Chess.WHITE ? Chess.BLACK : Chess.WHITE;
+        int attacker = Move.isPromotion(move) ? VALUES[Move.getPromotionPiece(move)] : VALUES[game.getPiece(Move.getFromSqi(move))];
+        gain[0] = captured(board, move);
+        int d = 0;
+        while (d < gain.length - 1) {
+            d++;
+            // Speculative, dropped by the unwinding below when nobody recaptures
+            gain[d] = attacker - gain[d - 1];
+            final int square = leastValuableAttacker(game, to, color, removed);
+            if (square == Chess.NO_SQUARE) {
+                break;
+            }
+            removed |= 1L << square;
+            attacker = VALUES[game.getPiece(square)];
+            color = color == Chess.WHITE ? Chess.BLACK : Chess.WHITE;
+        }
+        while (--d > 0) {
+            gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * Scans the pieces of the color attacking the square, ignoring removed
+     * ones so that x-ray attackers are found once the front piece captured.
+     *
+     * @return Square of the least valuable attacker, or NO_SQUARE
+     */
+    private static int leastValuableAttacker(Position game, int to, int color, long removed) {
+        final int col = Chess.sqiToCol(to);
+        final int row = Chess.sqiToRow(to);
+        int result = Chess.NO_SQUARE;
+        int best = Integer.MAX_VALUE;
+        // Pawns first, nothing is cheaper
+        final int pawnRow = color == Chess.WHITE ? row - 1 : row + 1;
+        for (int dc = -1; dc <= 1; dc += 2) {
+            final int square = at(col + dc, pawnRow);
+            if (square != Chess.NO_SQUARE && stone(game, square, removed) == Chess.pieceToStone(Chess.PAWN, color)) {
+                return square;
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            int square = at(col + KNIGHT_COLS[i], row + KNIGHT_ROWS[i]);
+            if (square != Chess.NO_SQUARE && stone(game, square, removed) == Chess.pieceToStone(Chess.KNIGHT, color)) {
+                return square;
+            }
+            square = at(col + KING_COLS[i], row + KING_ROWS[i]);
+            if (square != Chess.NO_SQUARE && stone(game, square, removed) == Chess.pieceToStone(Chess.KING, color)
+                    && VALUES[Chess.KING] < best) {
+                best = VALUES[Chess.KING];
+                result = square;
+            }
+            // Sliders, the first stone met on the ray
+            final boolean diagonal = KING_COLS[i] != 0 && KING_ROWS[i] != 0;
+            for (int c = col + KING_COLS[i], r = row + KING_ROWS[i]; (square = at(c, r)) != Chess.NO_SQUARE; c += KING_COLS[i], r += KING_ROWS[i]) {
+                final int stone = stone(game, square, removed);
+                if (stone != Chess.NO_STONE) {
+                    final int piece = Chess.stoneToPiece(stone);
+                    if (Chess.stoneToColor(stone) == color && VALUES[piece] < best
+                            && (piece == Chess.QUEEN || piece == (diagonal ? Chess.BISHOP : Chess.ROOK))) {
+                        best = VALUES[piece];
+                        result = square;
+                    }
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int at(int col, int row) {
+        return col >= 0 && col < 8 && row >= 0 && row < 8 ? Chess.coorToSqi(col, row) : Chess.NO_SQUARE;
+    }
+
+    private static int stone(Position game, int square, long removed) {
+        return (removed & (1L << square)) != 0 ? Chess.NO_STONE : game.getStone(square);
+    }
+
+}
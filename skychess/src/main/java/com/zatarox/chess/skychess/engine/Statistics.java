@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import java.io.Serializable;
+
+/**
+ * Counters collected by a search thread, reset before each search.
+ */
+public final class Statistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private long nodes;
+    private long quiescentNodes;
+    private int selectiveDepth;
+    long rootSearches;
+    long nullMoveCutoffs;
+    long nullMoveVerifications;
+    long lateMoveReductions;
+    long lateMoveResearches;
+    long futilityPruned;
+    long reverseFutilityPruned;
+    long deltaPruned;
+    long exchangePruned;
+    long evaluations;
+    long evaluationHits;
+
+    public void reset() {
+        nodes = 0;
+        quiescentNodes = 0;
+        selectiveDepth = 0;
+        rootSearches = 0;
+        nullMoveCutoffs = 0;
+        nullMoveVerifications = 0;
+        lateMoveReductions = 0;
+        lateMoveResearches = 0;
+        futilityPruned = 0;
+        reverseFutilityPruned = 0;
+        deltaPruned = 0;
+        exchangePruned = 0;
+        evaluations = 0;
+        evaluationHits = 0;
+    }
+
+    /**
+     * Sums the counters of another search thread into this one.
+     *
+     * @param other Counters to add
+     */
+    void add(Statistics other) {
+        nodes += other.nodes;
+        quiescentNodes += other.quiescentNodes;
+        selectiveDepth = Math.max(selectiveDepth, other.selectiveDepth);
+        rootSearches += other.rootSearches;
+        nullMoveCutoffs += other.nullMoveCutoffs;
+        nullMoveVerifications += other.nullMoveVerifications;
+        lateMoveReductions += other.lateMoveReductions;
+        lateMoveResearches += other.lateMoveResearches;
+        futilityPruned += other.futilityPruned;
+        reverseFutilityPruned += other.reverseFutilityPruned;
+        deltaPruned += other.deltaPruned;
+        exchangePruned += other.exchangePruned;
+        evaluations += other.evaluations;
+        evaluationHits += other.evaluationHits;
+    }
+
+    /**
+     * @param ply Distance from the root of the visited node
+     * @param quiescent true if the node belongs to the quiescence search
+     * @return Total of visited nodes
+     */
+    long visit(int ply, boolean quiescent) {
+        if (quiescent) {
+            quiescentNodes++;
+        }
+        if (ply > selectiveDepth) {
+            selectiveDepth = ply;
+        }
+        return ++nodes;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getQuiescentNodes() {
+        return quiescentNodes;
+    }
+
+    public int getSelectiveDepth() {
+        return selectiveDepth;
+    }
+
+    /**
+     * @return Passes over the root moves, aspiration and MTD(f) re-searches
+     * included
+     */
+    public long getRootSearches() {
+        return rootSearches;
+    }
+
+    public long getNullMoveCutoffs() {
+        return nullMoveCutoffs;
+    }
+
+    public long getNullMoveVerifications() {
+        return nullMoveVerifications;
+    }
+
+    public long getLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * @return Reduced moves searched again at full depth
+     */
+    public long getLateMoveResearches() {
+        return lateMoveResearches;
+    }
+
+    public long getFutilityPruned() {
+        return futilityPruned;
+    }
+
+    public long getReverseFutilityPruned() {
+        return reverseFutilityPruned;
+    }
+
+    public long getDeltaPruned() {
+        return deltaPruned;
+    }
+
+    /**
+     * @return Captures skipped in quiescence for losing material
+     */
+    public long getExchangePruned() {
+        return exchangePruned;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getEvaluationHits() {
+        return evaluationHits;
+    }
+
+    /**
+     * @return Permille of static evaluations found in the evaluation cache
+     */
+    public int getEvaluationHitRate() {
+        return evaluations == 0 ? 0 : (int) (evaluationHits * 1000 / evaluations);
+    }
+
+    @Override
+    public String toString() {
+        return "nodes " + nodes + " qnodes " + quiescentNodes + " roots " + rootSearches
+                + " nullmove " + nullMoveCutoffs + "/" + nullMoveVerifications
+                + " lmr " + lateMoveReductions + "/" + lateMoveResearches
+                + " futility " + futilityPruned + " rfutility " + reverseFutilityPruned
+                + " delta " + deltaPruned + " see " + exchangePruned
+                + " evalcache " + evaluationHits + "/" + evaluations;
+    }
+
+}
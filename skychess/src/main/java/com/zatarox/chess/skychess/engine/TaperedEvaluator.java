@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import chesspresso.Chess;
+
+/**
+ * Evaluation interpolated between middle game and end game terms by the
+ * remaining material: piece-square tables kept by the board, mobility, king
+ * safety, bishop pair and pawn structure. Pawn structure terms only depend
+ * on the pawns, they are cached by pawn key.
+ */
+public class TaperedEvaluator implements Evaluator {
+
+    private static final int PAWN_TABLE_SLOTS = 1 << 14;
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    /**
+     * Squares in front of a pawn, on its file and both adjacent ones.
+     */
+    private static final long[][] PASSED_SPANS = new long[2][Chess.NUM_OF_SQUARES];
+    /**
+     * Squares of the pawn shield, two ranks in front of the king.
+     */
+    private static final long[][] SHIELDS = new long[2][Chess.NUM_OF_SQUARES];
+
+    private static final int[] PIECES = {Chess.KNIGHT, Chess.BISHOP, Chess.ROOK, Chess.QUEEN};
+    private static final int[] MOBILITY_MIDDLE_GAME = new int[Chess.MAX_PIECE + 1];
+    private static final int[] MOBILITY_END_GAME = new int[Chess.MAX_PIECE + 1];
+    /**
+     * Usual number of reachable squares, a piece below scores negatively.
+     */
+    private static final int[] MOBILITY_AVERAGE = new int[Chess.MAX_PIECE + 1];
+    private static final int[] KING_ATTACK_WEIGHTS = new int[Chess.MAX_PIECE + 1];
+    /**
+     * Percentage of the attack weight applied by number of attackers.
+     */
+    private static final int[] ATTACKERS_SCALE = {0, 0, 50, 75, 88, 94, 97, 99};
+
+    private static final int DOUBLED_MIDDLE_GAME = -10;
+    private static final int DOUBLED_END_GAME = -20;
+    private static final int ISOLATED_MIDDLE_GAME = -10;
+    private static final int ISOLATED_END_GAME = -15;
+    private static final int[] PASSED_MIDDLE_GAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_END_GAME = {0, 10, 20, 35, 60, 100, 150, 0};
+    private static final int SHIELD = 12;
+    private static final int BISHOP_PAIR_MIDDLE_GAME = 30;
+    private static final int BISHOP_PAIR_END_GAME = 50;
+
+    static {
+        MOBILITY_MIDDLE_GAME[Chess.KNIGHT] = 4;
+        MOBILITY_MIDDLE_GAME[Chess.BISHOP] = 5;
+        MOBILITY_MIDDLE_GAME[Chess.ROOK] = 2;
+        MOBILITY_MIDDLE_GAME[Chess.QUEEN] = 1;
+        MOBILITY_END_GAME[Chess.KNIGHT] = 4;
+        MOBILITY_END_GAME[Chess.BISHOP] = 5;
+        MOBILITY_END_GAME[Chess.ROOK] = 4;
+        MOBILITY_END_GAME[Chess.QUEEN] = 2;
+        MOBILITY_AVERAGE[Chess.KNIGHT] = 4;
+        MOBILITY_AVERAGE[Chess.BISHOP] = 6;
+        MOBILITY_AVERAGE[Chess.ROOK] = 7;
+        MOBILITY_AVERAGE[Chess.QUEEN] = 13;
+        KING_ATTACK_WEIGHTS[Chess.KNIGHT] = 20;
+        KING_ATTACK_WEIGHTS[Chess.BISHOP] = 20;
+        KING_ATTACK_WEIGHTS[Chess.ROOK] = 40;
+        KING_ATTACK_WEIGHTS[Chess.QUEEN] = 80;
+        for (int col = 0; col < 8; col++) {
+            FILES[col] = FILE_A << col;
+        }
+        for (int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0L) | (col < 7 ? FILES[col + 1] : 0L);
+        }
+        for (int sqi = 0; sqi < Chess.NUM_OF_SQUARES; sqi++) {
+            final int col = Chess.sqiToCol(sqi);
+            final int row = Chess.sqiToRow(sqi);
+            final long files = FILES[col] | ADJACENT_FILES[col];
+            for (int r = 0; r < 8; r++) {
+                final long rank = 0xffL << (8 * r);
+                if (r > row) {
+                    PASSED_SPANS[Chess.WHITE][sqi] |= files & rank;
+                    if (r <= row + 2) {
+                        SHIELDS[Chess.WHITE][sqi] |= files & rank;
+                    }
+                } else if (r < row) {
+                    PASSED_SPANS[Chess.BLACK][sqi] |= files & rank;
+                    if (r >= row - 2) {
+                        SHIELDS[Chess.BLACK][sqi] |= files & rank;
+                    }
+                }
+            }
+        }
+    }
+
+    private final PawnTable pawns = new PawnTable(PAWN_TABLE_SLOTS);
+
+    @Override
+    public int evaluate(Board board) {
+        int middleGame = board.getMiddleGameScore();
+        int endGame = board.getEndGameScore();
+        final long key = board.getPawnKey();
+        long entry = pawns.probe(key);
+        if (entry == PawnTable.MISS) {
+            entry = pawns.put(key, evaluatePawns(board, true), evaluatePawns(board, false));
+        }
+        middleGame += PawnTable.getMiddleGame(entry);
+        endGame += PawnTable.getEndGame(entry);
+
+        final long occupied = board.getOccupancy(Chess.WHITE) | board.getOccupancy(Chess.BLACK);
+        for (int color = Chess.WHITE; color <= Chess.BLACK; color++) {
+            final int sign = color == Chess.WHITE ? 1 : -1;
+            final int enemy = Chess.otherPlayer(color);
+            final long enemyPawns = board.getBitboard(Chess.pieceToStone(Chess.PAWN, enemy));
+            final long safe = ~board.getOccupancy(color) & ~pawnAttacks(enemy, enemyPawns);
+            final int enemyKing = Long.numberOfTrailingZeros(board.getBitboard(Chess.pieceToStone(Chess.KING, enemy)));
+            final long zone = enemyKing < Chess.NUM_OF_SQUARES ? Attacks.king(enemyKing) | (1L << enemyKing) : 0L;
+            int attackers = 0;
+            int weight = 0;
+            for (final int piece : PIECES) {
+                long pieces = board.getBitboard(Chess.pieceToStone(piece, color));
+                while (pieces != 0) {
+                    final int sqi = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    final long attacks = attacks(piece, sqi, occupied);
+                    final int mobility = Long.bitCount(attacks & safe) - MOBILITY_AVERAGE[piece];
+                    middleGame += sign * MOBILITY_MIDDLE_GAME[piece] * mobility;
+                    endGame += sign * MOBILITY_END_GAME[piece] * mobility;
+                    if ((attacks & zone) != 0) {
+                        attackers++;
+                        weight += KING_ATTACK_WEIGHTS[piece] * Long.bitCount(attacks & zone);
+                    }
+                }
+            }
+            // King safety matters in the middle game only
+            middleGame += sign * weight * ATTACKERS_SCALE[Math.min(attackers, ATTACKERS_SCALE.length - 1)] / 100;
+            final long king = board.getBitboard(Chess.pieceToStone(Chess.KING, color));
+            if (king != 0) {
+                final long ownPawns = board.getBitboard(Chess.pieceToStone(Chess.PAWN, color));
+                middleGame += sign * SHIELD * Math.min(3, Long.bitCount(ownPawns & SHIELDS[color][Long.numberOfTrailingZeros(king)]));
+            }
+            if (Long.bitCount(board.getBitboard(Chess.pieceToStone(Chess.BISHOP, color))) >= 2) {
+                middleGame += sign * BISHOP_PAIR_MIDDLE_GAME;
+                endGame += sign * BISHOP_PAIR_END_GAME;
+            }
+        }
+        final int score = PieceSquareTable.taper(middleGame, endGame, board.getPhase());
+        return board.getPlayer() == Board.Side.WHITE ? score : -score;
+    }
+
+    private static long attacks(int piece, int sqi, long occupied) {
+        switch (piece) {
+            case Chess.KNIGHT:
+                return Attacks.knight(sqi);
+            case Chess.BISHOP:
+                return Attacks.bishop(sqi, occupied);
+            case Chess.ROOK:
+                return Attacks.rook(sqi, occupied);
+            default:
+                return Attacks.queen(sqi, occupied);
+        }
+    }
+
+    private static long pawnAttacks(int color, long pawns) {
+        if (color == Chess.WHITE) {
+            return ((pawns << 7) & ~FILE_H) | ((pawns << 9) & ~FILE_A);
+        }
+        return ((pawns >>> 9) & ~FILE_H) | ((pawns >>> 7) & ~FILE_A);
+    }
+
+    /**
+     * Doubled, isolated and passed pawns, from white point of view.
+     *
+     * @param middleGame true for the middle game score, false for the end game one
+     */
+    private static int evaluatePawns(Board board, boolean middleGame) {
+        int result = 0;
+        for (int color = Chess.WHITE; color <= Chess.BLACK; color++) {
+            final int sign = color == Chess.WHITE ? 1 : -1;
+            final long own = board.getBitboard(Chess.pieceToStone(Chess.PAWN, color));
+            final long enemy = board.getBitboard(Chess.pieceToStone(Chess.PAWN, Chess.otherPlayer(color)));
+            long pawns = own;
+            while (pawns != 0) {
+                final int sqi = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+                final int col = Chess.sqiToCol(sqi);
+                if (Long.bitCount(own & FILES[col]) > 1) {
+                    result += sign * (middleGame ? DOUBLED_MIDDLE_GAME : DOUBLED_END_GAME);
+                }
+                if ((own & ADJACENT_FILES[col]) == 0) {
+                    result += sign * (middleGame ? ISOLATED_MIDDLE_GAME : ISOLATED_END_GAME);
+                }
+                if ((enemy & PASSED_SPANS[color][sqi]) == 0) {
+                    final int rank = color == Chess.WHITE ? Chess.sqiToRow(sqi) : 7 - Chess.sqiToRow(sqi);
+                    result += sign * (middleGame ? PASSED_MIDDLE_GAME[rank] : PASSED_END_GAME[rank]);
+                }
+            }
+        }
+        return result;
+    }
+
+}
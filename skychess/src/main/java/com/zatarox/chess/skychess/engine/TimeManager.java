@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+/**
+ * Computes the per-move deadlines from the engine clock.
+ *
+ * The soft deadline is checked between two iterations: no new iteration is
+ * started if it would likely end after it. It grows while the best move keeps changing.
+ * The hard deadline aborts the running iteration.
+ */
+final class TimeManager {
+
+    /**
+     * Milliseconds lost between the GUI and the engine for each move.
+     */
+    private static final int MOVE_OVERHEAD = 50;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final double MAX_INSTABILITY = 3;
+
+    private volatile long origin;
+    private long optimum;
+    private long soft;
+    private long hard;
+    private double instability;
+    /**
+     * true when searching for a fixed time per move.
+     */
+    private boolean fixed;
+
+    /**
+     * @param engineTime Remaining time on the clock in ms, 0 if unknown
+     * @param increment Increment per move in ms
+     * @param movesToGo Moves until the next time control, 0 if sudden death
+     * @param moveTime Fixed time per move in ms, 0 if unused
+     */
+    void start(int engineTime, int increment, int movesToGo, int moveTime) {
+        origin = System.currentTimeMillis();
+        instability = 0;
+        fixed = moveTime > 0;
+        if (fixed) {
+            optimum = hard = Math.max(1, moveTime - MOVE_OVERHEAD);
+        } else if (engineTime > 0) {
+            final long available = Math.max(1, engineTime - MOVE_OVERHEAD);
+            final int horizon = movesToGo > 0 ? Math.min(movesToGo, DEFAULT_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+            // Never the whole clock, even on the last move of the time control
+            hard = Math.min(available / Math.min(horizon, 3), Math.max(1, available - Math.max(MOVE_OVERHEAD, available / 10)));
+            optimum = Math.min(available / horizon + increment * 3L / 4, hard);
+            hard = Math.min(hard, optimum * 4);
+        } else {
+            optimum = hard = Long.MAX_VALUE;
+        }
+        soft = optimum;
+    }
+
+    /**
+     * Restarts the clock, used when a ponder search becomes a normal one.
+     */
+    void restart() {
+        origin = System.currentTimeMillis();
+    }
+
+    /**
+     * Called after each iteration to widen the soft deadline while the best
+     * move is unstable, and to bring it back once it settles.
+     *
+     * @param changed true if the best move differs from previous iteration
+     */
+    void update(boolean changed) {
+        instability = changed ? Math.min(instability + 1, MAX_INSTABILITY) : instability / 2;
+        if (optimum != Long.MAX_VALUE) {
+            soft = Math.min(hard, (long) (optimum * (1 + instability / 2)));
+        }
+    }
+
+    long getElapsed() {
+        return System.currentTimeMillis() - origin;
+    }
+
+    /**
+     * An iteration usually costs more than all the previous ones together,
+     * so none is started once half of the soft budget is spent. A fixed move
+     * time is used up to the end.
+     *
+     * @return true if no new iteration should be started
+     */
+    boolean isSoftExpired() {
+        return !fixed && getElapsed() >= soft / 2;
+    }
+
+    boolean isHardExpired() {
+        return getElapsed() >= hard;
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.tables;
+
+import com.zatarox.chess.skychess.engine.Board;
+import java.util.Arrays;
+
+/**
+ * This class implements a fixed-size, lockless, always-replace cache of
+ * static evaluations, shared by the search threads.
+ *
+ * Like the transposition table, each entry is the position key xor-ed with
+ * the data, then the data: the score with a marker bit so that a stored zero
+ * differs from an empty slot.
+ */
+public class EvaluationCache {
+
+    /**
+     * Returned by {@link #probe(Board)} when the position is not stored.
+     */
+    public static final long MISS = 0L;
+
+    public static final int DEFAULT_SIZE = 4;
+
+    private static final long STORED = 1L << 32;
+    private static final int SLOT_BYTES = 2 * 8;
+
+    private static final EvaluationCache INSTANCE = new EvaluationCache();
+
+    /**
+     * Swapped in a single write by {@link #resize(int)}, see the
+     * transposition table.
+     */
+    private volatile long[] table;
+
+    private EvaluationCache() {
+        table = allocate(DEFAULT_SIZE);
+    }
+
+    /**
+     * Allocates the biggest power-of-two table fitting in the given size.
+     *
+     * @param megabytes
+     * Size of the cache in MB
+     */
+    private static long[] allocate(int megabytes) {
+        final long slots = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / SLOT_BYTES));
+        return new long[(int) Math.min(slots, 1 << 29) * 2];
+    }
+
+    private static int index(long[] entries, long hash) {
+        return ((int) hash & (entries.length / 2 - 1)) << 1;
+    }
+
+    /**
+     * Reallocates the cache, dropping every entry.
+     *
+     * @param megabytes
+     * New size of the cache in MB
+     */
+    public void resize(int megabytes) {
+        table = allocate(megabytes);
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    /**
+     * @param position
+     * @param score
+     * Static evaluation from the side to move point of view
+     */
+    public void put(Board position, int score) {
+        final long hash = position.hashCode64();
+        final long[] entries = table;
+        final int index = index(entries, hash);
+        final long data = STORED | (score & 0xffffffffL);
+        entries[index] = hash ^ data;
+        entries[index + 1] = data;
+    }
+
+    /**
+     * @param position
+     * @return The packed entry for this position, or {@link #MISS}.
+     */
+    public long probe(Board position) {
+        final long hash = position.hashCode64();
+        final long[] entries = table;
+        final int index = index(entries, hash);
+        final long data = entries[index + 1];
+        return (entries[index] ^ data) == hash ? data : MISS;
+    }
+
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    public static EvaluationCache getInstance() {
+        return INSTANCE;
+    }
+}
@@ -15,66 +15,99 @@
  */
 package com.zatarox.chess.skychess.tables;
 
-import com.zatarox.chess.skychess.engine.Board;
-import java.util.HashSet;
-import java.util.Set;
-import chesspresso.position.Position;
+import java.io.Serializable;
+import java.util.Arrays;
 
 /**
- * This class implements a repetition table as a singleton.
+ * This class implements a repetition table as a stack of zobrist keys, one
+ * per ply played since the root position.
  */
-public class RepetitionTable {
+public class RepetitionTable implements Serializable {
 
-    private final Set<Integer> table;
-    private static RepetitionTable INSTANCE = null;
+    private static final long serialVersionUID = 1L;
+    private long[] keys = new long[256];
+    /**
+     * Barrier in effect when each key was pushed.
+     */
+    private int[] barriers = new int[256];
+    private int size = 0;
+    /**
+     * Index of the last null move, positions before it are not repetitions.
+     */
+    private int barrier = 0;
 
-    // Repetition table
-    private RepetitionTable() {
-        table = new HashSet<>(32 * 1024 * 1024 / 8, 1);
+    public void clear() {
+        size = 0;
+        barrier = 0;
     }
 
-    public synchronized void clear() {
-        table.clear();
+    /**
+     * Copies the keys recorded by another table.
+     *
+     * @param other
+     * The table to copy
+     */
+    public void set(RepetitionTable other) {
+        keys = Arrays.copyOf(other.keys, other.keys.length);
+        barriers = Arrays.copyOf(other.barriers, other.barriers.length);
+        size = other.size;
+        barrier = other.barrier;
     }
 
     /**
-     * Records a position the repetition table, will search through the table
-     * until it finds an empty slot
+     * Records the zobrist key of the position reached by the last move.
      *
-     * @param position
-     * The key to match
+     * @param key
+     * The key to record
      */
-    public synchronized void recordRep(Board position) {
-        table.add(position.hashCode());
+    public void push(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            barriers = Arrays.copyOf(barriers, 2 * size);
+        }
+        barriers[size] = barrier;
+        keys[size++] = key;
     }
 
     /**
-     * Removes a repetition entry
+     * Records the key of the position reached by a null move, no repetition
+     * is searched across it.
      *
-     * @param position
+     * @param key
+     * The key to record
      */
-    public synchronized void removeRep(Board position) {
-        table.remove(position.hashCode());
-
+    public void pushNull(long key) {
+        push(key);
+        barrier = size - 1;
     }
 
     /**
-     * Checks if the zobrist key exists in the repetition table will search
-     * through the whole array to see if any spot matches
-     *
-     * TODO: Make this smoother
-     *
-     * @param position
-     * @return
+     * Removes the last recorded key when a move is taken back.
      */
-    public synchronized boolean repExists(Position position) {
-        return table.contains(position);
+    public void pop() {
+        assert size > 0;
+        size--;
+        barrier = barriers[size];
     }
 
-    public static RepetitionTable getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new RepetitionTable();
+    /**
+     * Checks if the last recorded key already appeared. Only positions with
+     * the same side to move and played after the last irreversible move are
+     * scanned.
+     *
+     * @param halfmove
+     * Plies since the last capture or pawn move
+     * @return true if the position is a repetition
+     */
+    public boolean isRepetition(int halfmove) {
+        final int last = size - 1;
+        final int limit = Math.max(barrier, last - halfmove);
+        for (int i = last - 2; i >= limit; i -= 2) {
+            if (keys[i] == keys[last]) {
+                return true;
+            }
         }
-        return INSTANCE;
+        return false;
     }
+
 }
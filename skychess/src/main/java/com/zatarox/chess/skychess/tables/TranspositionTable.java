@@ -16,90 +16,174 @@
 package com.zatarox.chess.skychess.tables;
 
 import com.zatarox.chess.skychess.engine.Board;
-import com.zatarox.chess.skychess.tables.TranspositionTable.Entry;
-import java.io.Serializable;
-import org.apache.commons.collections.map.LRUMap;
+import java.util.Arrays;
+import chesspresso.move.Move;
 
 /**
- * This class implements a transposition table.
+ * This class implements a fixed-size, lockless transposition table.
+ *
+ * Each entry is made of two longs: the packed data and the position key
+ * xor-ed with this data. A torn write from a concurrent search thread
+ * breaks the xor check, so probes never need a monitor.
  */
-public class TranspositionTable extends AbstractTable<Board, Entry> {
+public class TranspositionTable {
 
-    class Entry implements Serializable {
+    public enum Bound {
 
-        public final long hash;
-        public double lowerbound;
-        public double upperbound;
+        UPPER,
+        LOWER,
+        EXACT
+    };
 
-        public Entry(Board board, double lowerbound, double upperbound) {
-            this.hash = board.hashCode64();
-            this.lowerbound = lowerbound;
-            this.upperbound = upperbound;
-        }
+    /**
+     * Returned by {@link #probe(Board)} when the position is not stored.
+     */
+    public static final long MISS = 0L;
 
-    }
+    public static final int DEFAULT_SIZE = 16;
 
-    private static TranspositionTable INSTANCE = null;
+    private static final Bound[] BOUNDS = Bound.values();
+    private static final int SLOT_BYTES = 2 * 8;
+
+    private static final TranspositionTable INSTANCE = new TranspositionTable();
+
+    /**
+     * Replaced as a whole on resize, its length gives the index mask so that
+     * a probing thread never mixes an old table with a new mask.
+     */
+    private volatile long[] table;
+    private int generation;
 
     private TranspositionTable() {
-        super(new LRUMap());
+        table = allocate(DEFAULT_SIZE);
     }
 
     /**
-     * Records the entry if the spot is empty or new position contains deeper
-     * or old position hcontainswrong ancientNodeSwitch
+     * Allocates the biggest power-of-two table fitting in the given size.
      *
-     * @param position
-     * @param upperbound
-     * @param lowerbound
+     * @param megabytes
+     * Size of the table in MB
      */
-    public synchronized void put(Board position, double upperbound, double lowerbound) {
-        getTable().put(position, new Entry(position, lowerbound, upperbound));
+    private static long[] allocate(int megabytes) {
+        final long slots = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / SLOT_BYTES));
+        return new long[(int) Math.min(slots, 1 << 29) * 2];
+    }
+
+    private static int index(long[] entries, long hash) {
+        return ((int) hash & (entries.length / 2 - 1)) << 1;
     }
 
     /**
-     * Returns true if the entry at the right index is 0 which means we have an
-     * entry stored
+     * Reallocates the table, dropping every entry.
      *
-     * @param position
-     * @return 
+     * @param megabytes
+     * New size of the table in MB
+     */
+    public void resize(int megabytes) {
+        table = allocate(megabytes);
+        generation = 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * Must be called before each new search to age the previous entries.
      */
-    public synchronized boolean contains(Board position) {
-        return getTable().containsKey(position) && getTable().get(position).hash == position.hashCode64();
+    public void newSearch() {
+        generation = (generation + 1) & 0x3f;
     }
 
     /**
-     * Returns the upperbound for the current board.
+     * Records the entry if the slot is empty, holds an entry from a previous
+     * search or a shallower one. The same position is also replaced by an
+     * exact or a slightly shallower entry, so that quiescence results do not
+     * overwrite deep bounds.
      *
      * @param position
-     * @return
+     * @param depth
+     * @param score
+     * @param bound
+     * @param move
      */
-    public synchronized double getUpperbound(Board position) {
-        double result = Double.NaN;
-        if (getTable().containsKey(position)) {
-            result = ((Entry) getTable().get(position)).upperbound;
+    public void put(Board position, int depth, int score, Bound bound, short move) {
+        final long hash = position.hashCode64();
+        final long[] entries = table;
+        final int index = index(entries, hash);
+        final long current = entries[index + 1];
+        final boolean same = (entries[index] ^ current) == hash;
+        if (current == MISS || getGeneration(current) != generation || depth >= getDepth(current)
+                || (same && (bound == Bound.EXACT || depth + 2 >= getDepth(current)))) {
+            if (same && move == Move.NO_MOVE) {
+                move = getMove(current);
+            }
+            final long data = pack(depth, score, bound, move);
+            entries[index] = hash ^ data;
+            entries[index + 1] = data;
         }
-        return result;
     }
-    
-        /**
-     * Returns the upperbound for the current board.
-     *
+
+    /**
      * @param position
-     * @return
+     * @return The packed entry for this position, or {@link #MISS}.
+     */
+    public long probe(Board position) {
+        final long hash = position.hashCode64();
+        final long[] entries = table;
+        final int index = index(entries, hash);
+        final long data = entries[index + 1];
+        return (entries[index] ^ data) == hash ? data : MISS;
+    }
+
+    /**
+     * Samples the first thousand slots, like UCI "hashfull" expects.
+     *
+     * @return Permille of slots used by the current search
      */
-    public synchronized double getLowerbound(Board position) {
-        double result = Double.NaN;
-        if (getTable().containsKey(position)) {
-            result = ((Entry) getTable().get(position)).lowerbound;
+    public int getUsage() {
+        final long[] entries = table;
+        final int samples = Math.min(1000, entries.length / 2);
+        int used = 0;
+        for (int i = 0; i < samples; i++) {
+            final long data = entries[2 * i + 1];
+            if (data != MISS && getGeneration(data) == generation) {
+                used++;
+            }
         }
-        return result;
+        return used * 1000 / samples;
+    }
+
+    private long pack(int depth, int score, Bound bound, short move) {
+        return ((long) score << 32)
+                | ((long) generation << 26)
+                | ((long) (bound.ordinal() + 1) << 24)
+                | ((long) (Math.max(0, Math.min(depth, 0xff))) << 16)
+                | (move & 0xffffL);
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> 26) & 0x3f;
+    }
+
+    public static short getMove(long entry) {
+        return (short) entry;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 16) & 0xff;
+    }
+
+    public static Bound getBound(long entry) {
+        return BOUNDS[((int) (entry >>> 24) & 0x3) - 1];
+    }
+
+    public static int getScore(long entry) {
+        return (int) (entry >>> 32);
     }
 
     public static TranspositionTable getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new TranspositionTable();
-        }
         return INSTANCE;
     }
 }
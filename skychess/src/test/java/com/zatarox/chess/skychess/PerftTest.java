@@ -18,6 +18,7 @@ package com.zatarox.chess.skychess;
 import static org.junit.Assert.*;
 
 import com.zatarox.chess.skychess.engine.Perft;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import chesspresso.position.Position;
@@ -31,7 +32,14 @@ public class PerftTest {
     private static Logger logger = Logger.getLogger(PerftTest.class.getSimpleName());
 
     private final static int maxPly = 40060325;
+    /**
+     * The hashed parallel perft is fast enough to go deeper.
+     */
+    private final static int maxHashedPly = 200000000;
     private final static int maxDepth = 20;
+    private final static int hashSize = 64;
+
+    private final static ForkJoinPool pool = new ForkJoinPool();
 
     @Before
     public void setUp() throws Exception {
@@ -48,6 +56,7 @@ public class PerftTest {
         boolean valid = validatePosition(position);
 
         assertTrue(valid);
+        assertTrue(validateHashedPosition(position));
     }
 
     @Test
@@ -60,6 +69,7 @@ public class PerftTest {
         boolean valid = validatePosition(position);
 
         assertTrue(valid);
+        assertTrue(validateHashedPosition(position));
     }
 
     @Test
@@ -72,6 +82,7 @@ public class PerftTest {
         boolean valid = validatePosition(position);
 
         assertTrue(valid);
+        assertTrue(validateHashedPosition(position));
     }
 
     @Test
@@ -84,6 +95,7 @@ public class PerftTest {
         boolean valid = validatePosition(position);
 
         assertTrue(valid);
+        assertTrue(validateHashedPosition(position));
     }
 
     @Test
@@ -96,6 +108,7 @@ public class PerftTest {
         boolean valid = validatePosition(position);
 
         assertTrue(valid);
+        assertTrue(validateHashedPosition(position));
     }
 
     @Test
@@ -109,19 +122,35 @@ public class PerftTest {
         boolean valid = validatePosition(position);
 
         assertTrue(valid);
+        assertTrue(validateHashedPosition(position));
     }
 
+    /**
+     * Sequential perft without hash table, the reference.
+     */
     private boolean validatePosition(PerftTestPos perftTestPos) {
+        return validatePosition(perftTestPos, false, maxPly);
+    }
+
+    /**
+     * Fork/join perft with the perft hash table, checked against the same
+     * answers.
+     */
+    private boolean validateHashedPosition(PerftTestPos perftTestPos) {
+        return validatePosition(perftTestPos, true, maxHashedPly);
+    }
+
+    private boolean validatePosition(PerftTestPos perftTestPos, boolean hashed, long limit) {
         Position board = new Position();
         /* Check all the positions to the given depth */
         long startTot = System.currentTimeMillis();
         logger.log(Level.FINER, perftTestPos.getName());
         boolean allDepthsCorrect = true;
         for (int i = 1; i < maxDepth && i < perftTestPos.answerLength(); i++) {
-            if (perftTestPos.getAnswerAtDepth(i) != -1L && perftTestPos.getAnswerAtDepth(i) < maxPly) {
+            if (perftTestPos.getAnswerAtDepth(i) != -1L && perftTestPos.getAnswerAtDepth(i) < limit) {
                 board.set(new Position(perftTestPos.getFen()));
                 long start = System.currentTimeMillis();
-                long answer = Perft.perft(board, i, false);
+                long answer = hashed ? Perft.perft(board, i, pool, hashSize) : Perft.perft(board, i, false);
                 StringBuilder sb = new StringBuilder();
                 sb.append("  Depth: ").append(i).append(" Answer: ").append(answer);
                 if (answer == perftTestPos.getAnswerAtDepth(i)) {
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.engine;
+
+import static org.junit.Assert.*;
+
+import chesspresso.Chess;
+import chesspresso.move.Move;
+
+import org.junit.Test;
+
+public class StaticExchangeTest {
+
+    private static int evaluate(String fen, String from, String to) {
+        final Board board = new Board();
+        board.reset(fen);
+        for (short move : board.getAllMoves()) {
+            if (Move.getFromSqi(move) == Chess.strToSqi(from) && Move.getToSqi(move) == Chess.strToSqi(to)) {
+                return StaticExchange.evaluate(board, move, new int[StaticExchange.SWAP_LENGTH]);
+            }
+        }
+        throw new AssertionError(from + to + " is not legal");
+    }
+
+    @Test
+    public void testFreeCapture() {
+        assertEquals(320, evaluate("4k3/8/8/3n4/4P3/8/8/4K3 w - - 0 1", "e4", "d5"));
+    }
+
+    @Test
+    public void testPawnTakesDefendedKnight() {
+        assertEquals(320 - 100, evaluate("4k3/8/2p5/3n4/4P3/8/8/4K3 w - - 0 1", "e4", "d5"));
+    }
+
+    @Test
+    public void testRookTakesDefendedPawn() {
+        assertEquals(100 - 500, evaluate("3rk3/8/8/3p4/8/8/3R4/4K3 w - - 0 1", "d2", "d5"));
+    }
+
+    @Test
+    public void testXRayRook() {
+        // The rook behind recaptures once the front one is gone
+        assertEquals(100, evaluate("3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2", "d5"));
+    }
+
+    @Test
+    public void testLeastValuableAttackerFirst() {
+        // Black takes back with the pawn, not with the queen
+        assertEquals(330 - 500, evaluate("4k3/8/2p1q3/3b4/8/8/3R4/7K w - - 0 1", "d2", "d5"));
+    }
+
+    @Test
+    public void testEnPassant() {
+        assertEquals(100, evaluate("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5", "d6"));
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.tables;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepetitionTableTest {
+
+    private RepetitionTable table;
+
+    @Before
+    public void setUp() {
+        table = new RepetitionTable();
+    }
+
+    @Test
+    public void testRepetitionInWindow() {
+        table.push(1);
+        table.push(2);
+        table.push(3);
+        table.push(4);
+        table.push(1);
+        assertTrue(table.isRepetition(4));
+    }
+
+    @Test
+    public void testRepetitionBeforeIrreversibleMove() {
+        table.push(1);
+        table.push(2);
+        table.push(3);
+        table.push(4);
+        table.push(1);
+        // The first key was played before the last capture or pawn move
+        assertFalse(table.isRepetition(3));
+    }
+
+    @Test
+    public void testOtherSideToMove() {
+        table.push(1);
+        table.push(2);
+        table.push(1);
+        table.push(3);
+        assertFalse(table.isRepetition(10));
+    }
+
+    @Test
+    public void testNullMoveBarrier() {
+        table.push(1);
+        table.push(2);
+        table.pushNull(3);
+        table.push(4);
+        table.push(1);
+        assertFalse(table.isRepetition(10));
+    }
+
+    @Test
+    public void testBarrierRestored() {
+        table.push(1);
+        table.push(2);
+        table.pushNull(3);
+        table.push(4);
+        table.pop();
+        table.pop();
+        // Back before the null move, the first key is visible again
+        table.push(5);
+        table.push(6);
+        table.push(1);
+        assertTrue(table.isRepetition(10));
+    }
+
+    @Test
+    public void testGrow() {
+        for (int i = 0; i < 1000; i++) {
+            table.push(i);
+        }
+        table.push(998);
+        assertTrue(table.isRepetition(2));
+    }
+
+}
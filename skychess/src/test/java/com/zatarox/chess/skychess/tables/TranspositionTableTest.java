@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Guillaume CHAUVET.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zatarox.chess.skychess.tables;
+
+import static org.junit.Assert.*;
+
+import com.zatarox.chess.skychess.engine.Board;
+import com.zatarox.chess.skychess.engine.DefaultChessEngine;
+import com.zatarox.chess.skychess.tables.TranspositionTable.Bound;
+import chesspresso.move.Move;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TranspositionTableTest {
+
+    private TranspositionTable table;
+    private Board board;
+    private short move;
+
+    @Before
+    public void setUp() {
+        table = TranspositionTable.getInstance();
+        table.clear();
+        board = new Board();
+        board.reset("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        move = board.getAllMoves()[0];
+    }
+
+    private void assertEntry(int depth, int score, Bound bound, short move) {
+        final long entry = table.probe(board);
+        assertNotEquals(TranspositionTable.MISS, entry);
+        assertEquals(depth, TranspositionTable.getDepth(entry));
+        assertEquals(score, TranspositionTable.getScore(entry));
+        assertEquals(bound, TranspositionTable.getBound(entry));
+        assertEquals(move, TranspositionTable.getMove(entry));
+    }
+
+    @Test
+    public void testMiss() {
+        assertEquals(TranspositionTable.MISS, table.probe(board));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        table.put(board, 7, -1234, Bound.LOWER, move);
+        assertEntry(7, -1234, Bound.LOWER, move);
+        table.put(board, 9, 56, Bound.EXACT, move);
+        assertEntry(9, 56, Bound.EXACT, move);
+    }
+
+    @Test
+    public void testMateScores() {
+        table.put(board, 3, DefaultChessEngine.MATE - 5, Bound.UPPER, move);
+        assertEntry(3, DefaultChessEngine.MATE - 5, Bound.UPPER, move);
+        table.put(board, 4, -DefaultChessEngine.MATE + 8, Bound.EXACT, move);
+        assertEntry(4, -DefaultChessEngine.MATE + 8, Bound.EXACT, move);
+    }
+
+    @Test
+    public void testKeepMove() {
+        table.put(board, 5, 10, Bound.LOWER, move);
+        table.put(board, 6, 20, Bound.UPPER, Move.NO_MOVE);
+        assertEntry(6, 20, Bound.UPPER, move);
+    }
+
+    @Test
+    public void testGenerationWrap() {
+        // Generation 63 is the highest value, it must not leak in the bound
+        for (int i = 0; i < 63; i++) {
+            table.newSearch();
+        }
+        table.put(board, 10, -300, Bound.UPPER, move);
+        assertEntry(10, -300, Bound.UPPER, move);
+        // A shallow bound does not replace a deep one of the same search
+        table.put(board, 1, 0, Bound.LOWER, move);
+        assertEntry(10, -300, Bound.UPPER, move);
+        // The next search wraps to generation 0: the entry is now stale
+        table.newSearch();
+        table.put(board, 1, 0, Bound.LOWER, move);
+        assertEntry(1, 0, Bound.LOWER, move);
+        table.put(board, 12, 40, Bound.LOWER, move);
+        // 64 searches later the generation is the same again
+        for (int i = 0; i < 64; i++) {
+            table.newSearch();
+        }
+        table.put(board, 1, 5, Bound.UPPER, move);
+        assertEntry(12, 40, Bound.LOWER, move);
+    }
+
+}